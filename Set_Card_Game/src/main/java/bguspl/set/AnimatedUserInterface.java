@@ -0,0 +1,142 @@
+package bguspl.set;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A UserInterface decorator that paces the changes of the board on an animation timeline, so the game model can be
+ * updated at once while the screen shows the cards placed and removed one by one.
+ * <p>
+ * Every card placed or removed is shown config.tableDelayMillis after the previous one; the other changes of the
+ * board (tokens, winners) are shown in order between them. The timers and the score panel are not delayed.
+ * All the delayed changes are shown by a single background thread, in the order they were made.
+ */
+public class AnimatedUserInterface implements UserInterface {
+
+    private final UserInterface ui;
+    private final long frameNanos;
+    private final ExecutorService timeline;
+
+    /**
+     * The System.nanoTime() at which the animation of the last scheduled change ends (written under this, read without
+     * a lock so players checking for an animation on every key press never wait for the scheduling).
+     */
+    private volatile long timelineEnd;
+
+    /**
+     * @param ui     - the user interface to show the changes on.
+     * @param config - the game configuration.
+     */
+    public AnimatedUserInterface(UserInterface ui, Config config) {
+        this.ui = ui;
+        this.frameNanos = TimeUnit.MILLISECONDS.toNanos(config.tableDelayMillis);
+        this.timeline = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "animation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timelineEnd = System.nanoTime();
+    }
+
+    /**
+     * Schedules a change at the end of the timeline.
+     *
+     * @param change - the change to show.
+     * @param frame  - true iff the change takes a frame (the next change is shown a frame later).
+     */
+    private synchronized void animate(Runnable change, boolean frame) {
+        long at = Math.max(System.nanoTime(), timelineEnd);
+        if (frame)
+            timelineEnd = at + frameNanos;
+        // the changes are queued in timeline order, every one waits for its time after the previous one was shown
+        timeline.execute(() -> {
+            for (long wait = at - System.nanoTime(); wait > 0; wait = at - System.nanoTime())
+                LockSupport.parkNanos(wait);
+            change.run();
+        });
+    }
+
+    @Override
+    public boolean isAnimating() {
+        return System.nanoTime() < timelineEnd;
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+        animate(() -> ui.placeCard(card, slot), true);
+    }
+
+    @Override
+    public void removeCard(int slot) {
+        animate(() -> ui.removeCard(slot), true);
+    }
+
+    /**
+     * The cards are shown one by one (all at once if there is no delay).
+     */
+    @Override
+    public void placeCards(int[] cards, int[] slots) {
+        if (frameNanos == 0)
+            animate(() -> ui.placeCards(cards, slots), true);
+        else
+            UserInterface.super.placeCards(cards, slots);
+    }
+
+    /**
+     * The cards are removed one by one (all at once if there is no delay).
+     */
+    @Override
+    public void removeCards(int[] slots) {
+        if (frameNanos == 0)
+            animate(() -> ui.removeCards(slots), true);
+        else
+            UserInterface.super.removeCards(slots);
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        ui.setCountdown(millies, warn);
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        ui.setElapsed(millies);
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+        ui.setScore(player, score);
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+        ui.setFreeze(player, millies);
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+        animate(() -> ui.placeToken(player, slot), false);
+    }
+
+    @Override
+    public void removeTokens() {
+        animate(ui::removeTokens, false);
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+        animate(() -> ui.removeTokens(slot), false);
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+        animate(() -> ui.removeToken(player, slot), false);
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        animate(() -> ui.announceWinner(players), false);
+    }
+}
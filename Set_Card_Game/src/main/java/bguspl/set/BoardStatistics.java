@@ -0,0 +1,268 @@
+package bguspl.set;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Estimates, by Monte Carlo simulation, how often the dealer meets a board without a set for a configuration
+ * (FeatureSize, FeatureCount, Rows x Columns): the probability that a freshly dealt board has no set, the expected
+ * number of sets on it, and over whole games played the way Dealer.run() plays them, the number of reshuffles forced
+ * by boards without a set and the length of a game.
+ * <p>
+ * In a simulated game a set on the board is collected as soon as there is one, the collected cards are replaced from
+ * the deck, and a board without a set is returned to the deck and dealt again (a reshuffle, which in a real game
+ * happens only when the turn timeout expires). The game ends, like in Dealer.shouldFinish(), when the deck has no set.
+ * The trials are split between threads; counting sets on a board does not allocate (see Util.countSets).
+ */
+public class BoardStatistics {
+
+    /**
+     * A game that needs more reshuffles than this in a row is given up (it would stall the dealer for good, e.g. on
+     * a table too small for a set).
+     */
+    private static final int MAX_RESHUFFLES_IN_A_ROW = 1000;
+
+    /**
+     * The totals of a simulation (or of a part of it).
+     */
+    public static class Result {
+        /**
+         * The number of fresh boards dealt, how many of them had no set, and the number of sets on them.
+         */
+        public long boards;
+        public long setFreeBoards;
+        public long boardSets;
+
+        /**
+         * The number of games played, the reshuffles of boards without a set, the sets collected and the cards dealt.
+         */
+        public long games;
+        public long reshuffles;
+        public long setsCollected;
+        public long cardsDealt;
+
+        /**
+         * The number of games given up after MAX_RESHUFFLES_IN_A_ROW reshuffles in a row.
+         */
+        public long stalledGames;
+
+        void add(Result other) {
+            boards += other.boards;
+            setFreeBoards += other.setFreeBoards;
+            boardSets += other.boardSets;
+            games += other.games;
+            reshuffles += other.reshuffles;
+            setsCollected += other.setsCollected;
+            cardsDealt += other.cardsDealt;
+            stalledGames += other.stalledGames;
+        }
+
+        public double setFreeProbability() {
+            return boards == 0 ? 0 : (double) setFreeBoards / boards;
+        }
+
+        public double setsPerBoard() {
+            return boards == 0 ? 0 : (double) boardSets / boards;
+        }
+
+        public double reshufflesPerGame() {
+            return games == 0 ? 0 : (double) reshuffles / games;
+        }
+
+        public double setsPerGame() {
+            return games == 0 ? 0 : (double) setsCollected / games;
+        }
+
+        public double cardsDealtPerGame() {
+            return games == 0 ? 0 : (double) cardsDealt / games;
+        }
+    }
+
+    private final Config config;
+    private final Util util;
+
+    public BoardStatistics(Config config, Util util) {
+        this.config = config;
+        this.util = util;
+    }
+
+    /**
+     * Runs a simulation.
+     *
+     * @param boards  - the number of fresh boards to deal.
+     * @param games   - the number of games to play.
+     * @param seed    - the seed of the simulation (the same seed and threads give the same result).
+     * @param threads - the number of threads to split the trials between.
+     * @return - the totals.
+     */
+    public Result run(long boards, long games, long seed, int threads) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> parts = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                long partBoards = boards / threads + (i < boards % threads ? 1 : 0);
+                long partGames = games / threads + (i < games % threads ? 1 : 0);
+                Random random = new Random(seed + i);
+                parts.add(workers.submit(() -> {
+                    Result result = new Result();
+                    sampleBoards(partBoards, random, result);
+                    playGames(partGames, random, result);
+                    return result;
+                }));
+            }
+            Result result = new Result();
+            for (Future<Result> part : parts)
+                result.add(part.get());
+            return result;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static void fillDeck(int[] deck) {
+        for (int card = 0; card < deck.length; card++)
+            deck[card] = card;
+    }
+
+    /**
+     * Moves n random cards of the first size cards of an array to the end of that range (a partial Fisher-Yates).
+     */
+    private static void drawToEnd(int[] cards, int size, int n, Random random) {
+        for (int i = size - 1; i >= size - n; i--) {
+            int j = random.nextInt(i + 1);
+            int card = cards[i];
+            cards[i] = cards[j];
+            cards[j] = card;
+        }
+    }
+
+    private void sampleBoards(long boards, Random random, Result result) {
+        int[] deck = new int[config.deckSize];
+        fillDeck(deck);
+        int[] board = new int[config.tableSize];
+        int size = Math.min(config.tableSize, deck.length);
+        for (long i = 0; i < boards; i++) {
+            drawToEnd(deck, deck.length, size, random);
+            System.arraycopy(deck, deck.length - size, board, 0, size);
+            int sets = util.countSets(board, size, Integer.MAX_VALUE);
+            result.boards++;
+            result.boardSets += sets;
+            if (sets == 0)
+                result.setFreeBoards++;
+        }
+    }
+
+    private void playGames(long games, Random random, Result result) {
+        int[] deck = new int[config.deckSize];
+        int[] board = new int[config.tableSize];
+        List<Integer> boardCards = new ArrayList<>(config.tableSize);
+        for (long i = 0; i < games; i++) {
+            fillDeck(deck);
+            int deckSize = deck.length;
+            int boardSize = 0;
+            int reshufflesInARow = 0;
+            result.games++;
+
+            game:
+            while (util.countSets(deck, deckSize, 1) > 0) {
+                // deal a board
+                int dealt = Math.min(config.tableSize - boardSize, deckSize);
+                drawToEnd(deck, deckSize, dealt, random);
+                System.arraycopy(deck, deckSize - dealt, board, boardSize, dealt);
+                deckSize -= dealt;
+                boardSize += dealt;
+                result.cardsDealt += dealt;
+
+                while (true) {
+                    boardCards.clear();
+                    for (int j = 0; j < boardSize; j++)
+                        boardCards.add(board[j]);
+                    List<int[]> sets = util.findSets(boardCards, 1);
+                    if (sets.isEmpty()) {
+                        // return the board to the deck and deal again
+                        result.reshuffles++;
+                        if (++reshufflesInARow == MAX_RESHUFFLES_IN_A_ROW) {
+                            result.stalledGames++;
+                            break game;
+                        }
+                        System.arraycopy(board, 0, deck, deckSize, boardSize);
+                        deckSize += boardSize;
+                        boardSize = 0;
+                        continue game;
+                    }
+
+                    // collect the set and refill the board
+                    for (int card : sets.get(0))
+                        for (int j = 0; j < boardSize; j++)
+                            if (board[j] == card) {
+                                board[j] = board[--boardSize];
+                                break;
+                            }
+                    result.setsCollected++;
+                    reshufflesInARow = 0;
+                    int refill = Math.min(config.tableSize - boardSize, deckSize);
+                    drawToEnd(deck, deckSize, refill, random);
+                    System.arraycopy(deck, deckSize - refill, board, boardSize, refill);
+                    deckSize -= refill;
+                    boardSize += refill;
+                    result.cardsDealt += refill;
+                    if (util.countSets(deck, deckSize, 1) == 0)
+                        break game;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a simulation of config.properties on all the cores and prints the estimates.
+     *
+     * @param args - the number of boards and of games (default 100000 and 10000), optionally the seed (default 0),
+     *             and any number of Key=Value settings overriding config.properties (e.g. Rows=4).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Logger logger = Logger.getLogger("SetGameLogger");
+        logger.setLevel(Level.WARNING);
+        Properties properties = Config.loadProperties("config.properties", logger);
+        long[] numbers = {100_000, 10_000, 0};
+        int positional = 0;
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals >= 0)
+                properties.setProperty(arg.substring(0, equals).trim(), arg.substring(equals + 1).trim());
+            else if (positional < numbers.length)
+                numbers[positional++] = Long.parseLong(arg);
+        }
+        long boards = numbers[0], games = numbers[1], seed = numbers[2];
+        Config config = new Config(logger, properties);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        Result result = new BoardStatistics(config, new UtilImpl(config)).run(boards, games, seed, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(Locale.ROOT, "FeatureSize=%d FeatureCount=%d table %dx%d, %d boards and %d games on %d "
+                        + "threads in %.1f s%n", config.featureSize, config.featureCount, config.rows, config.columns,
+                result.boards, result.games, threads, seconds);
+        System.out.printf(Locale.ROOT, "P(set-free board)        %.5f (1 in %.1f)%n", result.setFreeProbability(),
+                1 / Math.max(result.setFreeProbability(), Double.MIN_VALUE));
+        System.out.printf(Locale.ROOT, "sets per board           %.4f%n", result.setsPerBoard());
+        System.out.printf(Locale.ROOT, "reshuffles per game      %.4f (%.1f s of turn timeouts)%n",
+                result.reshufflesPerGame(), result.reshufflesPerGame() * Math.max(0, config.turnTimeoutMillis) / 1000.0);
+        System.out.printf(Locale.ROOT, "sets per game            %.4f%n", result.setsPerGame());
+        System.out.printf(Locale.ROOT, "cards dealt per game     %.4f%n", result.cardsDealtPerGame());
+        if (result.stalledGames > 0)
+            System.out.printf(Locale.ROOT, "stalled games            %d (no set after %d reshuffles)%n",
+                    result.stalledGames, MAX_RESHUFFLES_IN_A_ROW);
+    }
+}
@@ -0,0 +1,145 @@
+package bguspl.set;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class records latency histograms for every stage of a set claim, from the key press to the player waking up
+ * with the dealer's verdict.
+ * Buckets are powers of two nanoseconds, so recording a sample is a few atomic increments and never allocates.
+ */
+public class ClaimLatency {
+
+    /**
+     * The stages of a claim, in the order they happen.
+     */
+    public enum Stage {
+        /**
+         * From the AWT key event to the player's keyPressed (human players only).
+         */
+        INPUT_DISPATCH,
+        /**
+         * From the player's keyPressed until the player thread takes the action from the queue.
+         */
+        ACTION_QUEUE,
+        /**
+         * The time spent in Table.keyPressed, including the wait for the table lock.
+         */
+        TABLE_KEY_PRESS,
+        /**
+         * From Dealer.claimSet until the dealer polls the claim from the claims queue.
+         */
+        CLAIM_QUEUE,
+        /**
+         * The time the dealer spends checking the claim and removing the cards.
+         */
+        VERDICT,
+        /**
+         * From the verdict until the player thread wakes up.
+         */
+        WAKEUP,
+        /**
+         * From the key press that completed the set until the player thread wakes up with the verdict.
+         */
+        END_TO_END
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    /**
+     * The number of buckets per stage (bucket i holds samples in [2^(i-1), 2^i) nanoseconds).
+     */
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(STAGES.length * BUCKETS);
+    private final AtomicLongArray totals = new AtomicLongArray(STAGES.length);
+    private final AtomicLongArray maxima = new AtomicLongArray(STAGES.length);
+
+    /**
+     * Records a single latency sample.
+     *
+     * @param stage - the stage the sample belongs to.
+     * @param nanos - the latency in nanoseconds (negative values are counted as 0).
+     */
+    public void record(Stage stage, long nanos) {
+        if (nanos < 0) nanos = 0;
+        int index = stage.ordinal();
+        buckets.incrementAndGet(index * BUCKETS + BUCKETS - Long.numberOfLeadingZeros(nanos));
+        totals.addAndGet(index, nanos);
+        long max = maxima.get(index);
+        while (nanos > max && !maxima.compareAndSet(index, max, nanos))
+            max = maxima.get(index);
+    }
+
+    /**
+     * Records the time passed since a System.nanoTime() timestamp.
+     *
+     * @param stage - the stage the sample belongs to.
+     * @param since - the System.nanoTime() value at the start of the stage.
+     */
+    public void recordSince(Stage stage, long since) {
+        record(stage, System.nanoTime() - since);
+    }
+
+    /**
+     * @param stage - the stage.
+     * @return - the number of samples recorded for the stage.
+     */
+    public long count(Stage stage) {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++)
+            count += buckets.get(stage.ordinal() * BUCKETS + i);
+        return count;
+    }
+
+    /**
+     * @param stage - the stage.
+     * @return - the mean latency of the stage in nanoseconds (0 if there are no samples).
+     */
+    public long mean(Stage stage) {
+        long count = count(stage);
+        return count == 0 ? 0 : totals.get(stage.ordinal()) / count;
+    }
+
+    /**
+     * @param stage - the stage.
+     * @return - the maximal latency recorded for the stage in nanoseconds.
+     */
+    public long max(Stage stage) {
+        return maxima.get(stage.ordinal());
+    }
+
+    /**
+     * Returns an upper bound of the given percentile (the upper edge of the bucket the percentile falls in).
+     *
+     * @param stage      - the stage.
+     * @param percentile - the percentile, between 0 and 100.
+     * @return - the percentile upper bound in nanoseconds.
+     */
+    public long percentile(Stage stage, double percentile) {
+        long count = count(stage);
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(stage.ordinal() * BUCKETS + i);
+            if (seen >= rank && seen > 0)
+                return Math.min(i == 0 ? 0 : i == BUCKETS - 1 ? Long.MAX_VALUE : 1L << i, max(stage));
+        }
+        return max(stage);
+    }
+
+    /**
+     * @return - a human readable summary of all the stages (in microseconds).
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder("claim latency (us):");
+        for (Stage stage : STAGES) {
+            sb.append(System.lineSeparator()).append("  ").append(stage)
+                    .append(" count=").append(count(stage))
+                    .append(" mean=").append(mean(stage) / 1000)
+                    .append(" p50<=").append(percentile(stage, 50) / 1000)
+                    .append(" p99<=").append(percentile(stage, 99) / 1000)
+                    .append(" max=").append(max(stage) / 1000);
+        }
+        return sb.toString();
+    }
+}
@@ -40,6 +40,17 @@ public class Config {
      */
     public final int computerPlayers;
 
+    /**
+     * The number of milliseconds a computer player waits between two key presses
+     */
+    public final long computerDelayMillis;
+
+    /**
+     * The name of the strategy of every player (see ComputerStrategy, ignored for human players)
+     * Note: if there are more players than strategies, the strategies are repeated in order.
+     */
+    public final String[] computerStrategies;
+
     /**
      * The total number of players (human + computer) in the game
      */
@@ -71,10 +82,56 @@ public class Config {
     public final long pointFreezeMillis;
 
     /**
-     * The number of milliseconds to delay before removing/placing a card on the table
+     * The number of milliseconds between showing two cards placed/removed on the screen (the dealer's tick)
      */
     public final long tableDelayMillis;
 
+    /**
+     * Whether key presses are ignored while cards placed or removed are still being animated on the screen
+     */
+    public final boolean visualFidelity;
+
+    /**
+     * The number of frames per second the screen is rendered at from the board and the scores (0 to have every
+     * change pushed to the screen as it is made)
+     */
+    public final int frameRate;
+
+    /**
+     * The TCP port on which remote players can connect (-1 disables remote players)
+     */
+    public final int serverPort;
+
+    /**
+     * The number of remote connections accepted at once: the ones beyond the human players watch the game as spectators
+     */
+    public final int maxRemoteConnections;
+
+    /**
+     * The directory in which a journal of every game event is written (empty disables the journal)
+     */
+    public final String journalDirectory;
+
+    /**
+     * The size in bytes of every journal segment file
+     */
+    public final int journalSegmentSize;
+
+    /**
+     * The file in which the players' lifetime statistics are kept, by player name (empty disables the statistics)
+     */
+    public final String statsFile;
+
+    /**
+     * Whether the dealer checks all the pending claims together (in parallel) and commits their verdicts at once
+     */
+    public final boolean batchClaims;
+
+    /**
+     * The number of worker threads checking the claims against a copy of the board (0 for the dealer to check them)
+     */
+    public final int claimValidators;
+
     /**
      * The names of the players to display on the screen
      * Note: if there are more players than names, the remaining players will be called "Player 3", "Player 4", etc.
@@ -144,7 +201,7 @@ public class Config {
      * @param filename - the name of the configuration file.
      * @return - a properties object with the configuration file contents.
      */
-    private static Properties loadProperties(String filename, Logger logger) {
+    public static Properties loadProperties(String filename, Logger logger) {
 
         Properties properties = new Properties();
 
@@ -178,6 +235,10 @@ public class Config {
         humanPlayers = Integer.parseInt(properties.getProperty("HumanPlayers", "2"));
         computerPlayers = Integer.parseInt(properties.getProperty("ComputerPlayers", "0"));
         players = humanPlayers + computerPlayers;
+        computerDelayMillis = (long) (Double.parseDouble(properties.getProperty("ComputerDelaySeconds", "0.5")) * 1000.0);
+        String[] strategies = properties.getProperty("ComputerStrategies", "random").split(",");
+        computerStrategies = new String[players];
+        Arrays.setAll(computerStrategies, i -> strategies[i % strategies.length].trim());
 
         hints = Boolean.parseBoolean(properties.getProperty("Hints", "False"));
         turnTimeoutMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutSeconds", "60")) * 1000.0);
@@ -185,6 +246,15 @@ public class Config {
         pointFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PointFreezeSeconds", "1")) * 1000.0);
         penaltyFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PenaltyFreezeSeconds", "3")) * 1000.0);
         tableDelayMillis = (long) (Double.parseDouble(properties.getProperty("TableDelaySeconds", "0.1")) * 1000.0);
+        visualFidelity = Boolean.parseBoolean(properties.getProperty("VisualFidelity", "False"));
+        frameRate = Integer.parseInt(properties.getProperty("FrameRate", "0"));
+        serverPort = Integer.parseInt(properties.getProperty("ServerPort", "-1"));
+        maxRemoteConnections = Integer.parseInt(properties.getProperty("MaxRemoteConnections", "1000"));
+        journalDirectory = properties.getProperty("JournalDirectory", "").trim();
+        journalSegmentSize = (int) (Double.parseDouble(properties.getProperty("JournalSegmentMegabytes", "64")) * 1024 * 1024);
+        statsFile = properties.getProperty("StatsFile", "").trim();
+        batchClaims = Boolean.parseBoolean(properties.getProperty("BatchClaims", "False"));
+        claimValidators = Integer.parseInt(properties.getProperty("ClaimValidators", "0"));
 
         // ui data
         String[] names = properties.getProperty("PlayerNames", "Player 1, Player 2").split(",");
@@ -8,11 +8,32 @@ public class Env {
     public final Config config;
     public final UserInterface ui;
     public final Util util;
+    public final ClaimLatency latency;
+    public final GameJournal journal;
+    public final PlayerStatsStore stats;
+    public final StartupProfiler startup;
 
     public Env(Logger logger, Config config, UserInterface ui, Util util) {
+        this(logger, config, ui, util, GameJournal.disabled());
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, GameJournal journal) {
+        this(logger, config, ui, util, journal, PlayerStatsStore.disabled());
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, GameJournal journal, PlayerStatsStore stats) {
+        this(logger, config, ui, util, journal, stats, new StartupProfiler());
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, GameJournal journal, PlayerStatsStore stats,
+               StartupProfiler startup) {
         this.logger = logger;
         this.config = config;
         this.ui = ui;
         this.util = util;
+        this.latency = new ClaimLatency();
+        this.journal = journal;
+        this.stats = stats;
+        this.startup = startup;
     }
 }
@@ -0,0 +1,107 @@
+package bguspl.set;
+
+import java.nio.ByteBuffer;
+
+import static bguspl.set.GameEventEncoder.*;
+
+/**
+ * This class decodes the binary events written by GameEventEncoder and replays them on a UserInterface.
+ */
+public class GameEventDecoder {
+
+    private final UserInterface ui;
+
+    /**
+     * The winners collected so far (winner events come one per winner).
+     */
+    private int[] winners;
+    private int winnersCount;
+
+    /**
+     * The player id of the last PLAYER event (-1 if none).
+     */
+    private int player = -1;
+
+    /**
+     * @param ui - the user interface to replay the events on.
+     */
+    public GameEventDecoder(UserInterface ui) {
+        this.ui = ui;
+    }
+
+    /**
+     * Replays all the complete events in the buffer. An incomplete event at the end is left in the buffer.
+     *
+     * @param events - a buffer ready for reading.
+     * @return - the number of events decoded.
+     */
+    public int decode(ByteBuffer events) {
+        int decoded = 0;
+        while (events.remaining() >= EVENT_SIZE) {
+            byte type = events.get();
+            boolean flag = events.get() != 0;
+            int slot = events.getShort();
+            int player = events.getInt();
+            long value = events.getLong();
+            dispatch(type, flag, slot, player, value);
+            decoded++;
+        }
+        return decoded;
+    }
+
+    /**
+     * @return - the player id sent to this client by the server (-1 if none was received).
+     */
+    public int player() {
+        return player;
+    }
+
+    private void dispatch(byte type, boolean flag, int slot, int player, long value) {
+        switch (type) {
+            case PLACE_CARD:
+                ui.placeCard((int) value, slot);
+                break;
+            case REMOVE_CARD:
+                ui.removeCard(slot);
+                break;
+            case COUNTDOWN:
+                ui.setCountdown(value, flag);
+                break;
+            case ELAPSED:
+                ui.setElapsed(value);
+                break;
+            case SCORE:
+                ui.setScore(player, (int) value);
+                break;
+            case FREEZE:
+                ui.setFreeze(player, value);
+                break;
+            case PLACE_TOKEN:
+                ui.placeToken(player, slot);
+                break;
+            case REMOVE_ALL_TOKENS:
+                ui.removeTokens();
+                break;
+            case REMOVE_SLOT_TOKENS:
+                ui.removeTokens(slot);
+                break;
+            case REMOVE_TOKEN:
+                ui.removeToken(player, slot);
+                break;
+            case WINNER:
+                if (winners == null || winnersCount == 0)
+                    winners = new int[(int) value];
+                winners[winnersCount++] = player;
+                if (winnersCount == winners.length) {
+                    winnersCount = 0;
+                    ui.announceWinner(winners);
+                }
+                break;
+            case PLAYER:
+                this.player = player;
+                break;
+            default:
+                throw new IllegalArgumentException("unknown event type " + type);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package bguspl.set;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * This class encodes every user interface update as a fixed size binary event, into a pool of direct byte buffers.
+ * It is a UserInterface (optionally forwarding every update to another one), so it can be plugged in anywhere the
+ * game expects a user interface.
+ * <p>
+ * Event layout (EVENT_SIZE bytes, big endian):
+ * offset 0 - type (byte), offset 1 - flag (byte), offset 2 - slot (short), offset 4 - player (int),
+ * offset 8 - value (long: card, score, milliseconds or the number of winners).
+ * <p>
+ * Encoding an event never allocates: events are written into the current buffer of the pool. Filled buffers are
+ * handed to the consumer with drain() and given back to the pool with release(). The pool grows while the consumer
+ * falls behind, up to maxBuffers buffers; beyond that new events are dropped (and counted, see dropped()) until a
+ * buffer is released.
+ * <p>
+ * A freeze is shown in whole seconds, so a FREEZE event is encoded only when the shown second of the player changes,
+ * however often the freeze is updated.
+ */
+public class GameEventEncoder implements UserInterface {
+
+    /**
+     * The size in bytes of every event.
+     */
+    public static final int EVENT_SIZE = 16;
+
+    /**
+     * Event types.
+     */
+    public static final byte PLACE_CARD = 1;
+    public static final byte REMOVE_CARD = 2;
+    public static final byte COUNTDOWN = 3;
+    public static final byte ELAPSED = 4;
+    public static final byte SCORE = 5;
+    public static final byte FREEZE = 6;
+    public static final byte PLACE_TOKEN = 7;
+    public static final byte REMOVE_ALL_TOKENS = 8;
+    public static final byte REMOVE_SLOT_TOKENS = 9;
+    public static final byte REMOVE_TOKEN = 10;
+    /**
+     * One event per winner, value holds the number of winners.
+     */
+    public static final byte WINNER = 11;
+    /**
+     * Not a user interface update: tells a remote client which player it plays.
+     */
+    public static final byte PLAYER = 12;
+
+    private final UserInterface ui;
+    private final Runnable onData;
+    private final int bufferSize;
+    private final int maxBuffers;
+
+    /**
+     * The number of buffers allocated so far (at most maxBuffers).
+     */
+    private int allocated;
+
+    /**
+     * The number of events dropped because all the buffers were full.
+     */
+    private long dropped;
+
+    /**
+     * The freeze shown for every player (see freezeSeconds()), grown as players are seen.
+     */
+    private long[] shownFreezes = new long[0];
+
+    /**
+     * Buffers that are free to be filled.
+     */
+    private final ArrayDeque<ByteBuffer> pool = new ArrayDeque<>();
+
+    /**
+     * Filled buffers waiting to be drained.
+     */
+    private final ArrayDeque<ByteBuffer> ready = new ArrayDeque<>();
+
+    /**
+     * The buffer events are currently written to (null if all the buffers are full).
+     */
+    private ByteBuffer current;
+
+    /**
+     * @param ui              - a user interface to forward every update to (null for none).
+     * @param buffers         - the number of buffers to preallocate.
+     * @param maxBuffers      - the number of buffers the pool may grow to.
+     * @param eventsPerBuffer - the number of events every buffer holds.
+     * @param onData          - called when events become available to drain (null for none).
+     */
+    public GameEventEncoder(UserInterface ui, int buffers, int maxBuffers, int eventsPerBuffer, Runnable onData) {
+        this.ui = ui;
+        this.onData = onData;
+        this.bufferSize = eventsPerBuffer * EVENT_SIZE;
+        this.maxBuffers = Math.max(1, Math.max(buffers, maxBuffers));
+        for (int i = 0; i < buffers; i++)
+            pool.add(ByteBuffer.allocateDirect(bufferSize));
+        allocated = buffers;
+        current = nextBuffer();
+    }
+
+    /**
+     * Writes a single event at the buffer's position.
+     */
+    public static void write(ByteBuffer buffer, byte type, boolean flag, int slot, int player, long value) {
+        buffer.put(type).put((byte) (flag ? 1 : 0)).putShort((short) slot).putInt(player).putLong(value);
+    }
+
+    private ByteBuffer nextBuffer() {
+        ByteBuffer buffer = pool.poll();
+        // the pool only grows when the consumer falls behind, and only up to maxBuffers
+        if (buffer == null && allocated < maxBuffers) {
+            allocated++;
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        return buffer;
+    }
+
+    private void encode(byte type, boolean flag, int slot, int player, long value) {
+        boolean notify;
+        synchronized (this) {
+            if (current == null && (current = nextBuffer()) == null) {
+                dropped++;
+                return;
+            }
+            notify = current.position() == 0 && ready.isEmpty();
+            write(current, type, flag, slot, player, value);
+            if (!current.hasRemaining()) {
+                current.flip();
+                ready.add(current);
+                current = nextBuffer();
+            }
+        }
+        if (notify && onData != null)
+            onData.run();
+    }
+
+    /**
+     * @return - the freeze as it is shown: 0 if not frozen, otherwise 1 + the whole seconds shown.
+     */
+    private static long freezeSeconds(long millies) {
+        return millies > 0 ? millies / 1000 + 1 : 0;
+    }
+
+    /**
+     * Takes the oldest buffer of encoded events. The caller must give it back with release() when done with it.
+     *
+     * @return - a buffer ready for reading, or null if there are no events.
+     */
+    public synchronized ByteBuffer drain() {
+        ByteBuffer buffer = ready.poll();
+        if (buffer != null)
+            return buffer;
+        if (current == null || current.position() == 0)
+            return null;
+        buffer = current;
+        buffer.flip();
+        current = nextBuffer();
+        return buffer;
+    }
+
+    /**
+     * Gives a buffer taken with drain() back to the pool.
+     *
+     * @param buffer - the buffer.
+     */
+    public synchronized void release(ByteBuffer buffer) {
+        buffer.clear();
+        if (current == null)
+            current = buffer;
+        else
+            pool.add(buffer);
+    }
+
+    /**
+     * @return - the number of events dropped so far because the consumer fell more than maxBuffers buffers behind.
+     */
+    public synchronized long dropped() {
+        return dropped;
+    }
+
+    /**
+     * @return - the number of buffers allocated so far.
+     */
+    public synchronized int allocated() {
+        return allocated;
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+        if (ui != null) ui.placeCard(card, slot);
+        encode(PLACE_CARD, false, slot, -1, card);
+    }
+
+    @Override
+    public void removeCard(int slot) {
+        if (ui != null) ui.removeCard(slot);
+        encode(REMOVE_CARD, false, slot, -1, 0);
+    }
+
+    @Override
+    public void placeCards(int[] cards, int[] slots) {
+        if (ui != null) ui.placeCards(cards, slots);
+        for (int i = 0; i < cards.length; i++)
+            encode(PLACE_CARD, false, slots[i], -1, cards[i]);
+    }
+
+    @Override
+    public void removeCards(int[] slots) {
+        if (ui != null) ui.removeCards(slots);
+        for (int slot : slots)
+            encode(REMOVE_CARD, false, slot, -1, 0);
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        if (ui != null) ui.setCountdown(millies, warn);
+        encode(COUNTDOWN, warn, -1, -1, millies);
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        if (ui != null) ui.setElapsed(millies);
+        encode(ELAPSED, false, -1, -1, millies);
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+        if (ui != null) ui.setScore(player, score);
+        encode(SCORE, false, -1, player, score);
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+        long seconds = freezeSeconds(millies);
+        synchronized (this) {
+            if (player >= shownFreezes.length)
+                shownFreezes = Arrays.copyOf(shownFreezes, player + 1);
+            if (shownFreezes[player] == seconds)
+                return;
+            shownFreezes[player] = seconds;
+        }
+        if (ui != null) ui.setFreeze(player, millies);
+        encode(FREEZE, false, -1, player, millies);
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+        if (ui != null) ui.placeToken(player, slot);
+        encode(PLACE_TOKEN, false, slot, player, 0);
+    }
+
+    @Override
+    public void removeTokens() {
+        if (ui != null) ui.removeTokens();
+        encode(REMOVE_ALL_TOKENS, false, -1, -1, 0);
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+        if (ui != null) ui.removeTokens(slot);
+        encode(REMOVE_SLOT_TOKENS, false, slot, -1, 0);
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+        if (ui != null) ui.removeToken(player, slot);
+        encode(REMOVE_TOKEN, false, slot, player, 0);
+    }
+
+    @Override
+    public boolean isAnimating() {
+        return ui != null && ui.isAnimating();
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        if (ui != null) ui.announceWinner(players);
+        for (int player : players)
+            encode(WINNER, false, -1, player, players.length);
+    }
+}
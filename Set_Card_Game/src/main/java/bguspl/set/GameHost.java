@@ -0,0 +1,269 @@
+package bguspl.set;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class runs many independent games in the same JVM.
+ * Every game gets its own Env (logger, config, user interface and util), table, dealer and players. The dealers run
+ * on a shared, bounded pool of threads, so at most maxConcurrentGames games are played at the same time and the
+ * rest wait in line.
+ */
+public class GameHost {
+
+    /**
+     * A single game hosted by the game host.
+     */
+    public static class Game {
+
+        /**
+         * The id of the game (starting from 0).
+         */
+        public final int id;
+
+        /**
+         * The game environment object.
+         */
+        public final Env env;
+
+        /**
+         * Game entities.
+         */
+        public final Table table;
+        public final Dealer dealer;
+        public final Player[] players;
+
+        private volatile Future<?> future;
+
+        /**
+         * The System.nanoTime() at which the game started and finished (0 until then).
+         */
+        private volatile long startedAt;
+        private volatile long finishedAt;
+
+        private Game(int id, Env env, long seed) {
+            this.id = id;
+            this.env = env;
+            this.table = new Table(env);
+            this.players = new Player[env.config.players];
+            this.dealer = new Dealer(env, table, players, seed);
+            for (int i = 0; i < players.length; i++)
+                players[i] = new Player(env, dealer, table, i, i < env.config.humanPlayers);
+        }
+
+        /**
+         * @return - true iff the game has finished (or was removed).
+         */
+        public boolean isDone() {
+            return future != null && future.isDone();
+        }
+
+        /**
+         * @return - the time in milliseconds the game was played (until now if it is still played, 0 if it has not
+         * started).
+         */
+        public double durationMillis() {
+            long started = startedAt;
+            if (started == 0)
+                return 0;
+            long finished = finishedAt;
+            return ((finished == 0 ? System.nanoTime() : finished) - started) / 1e6;
+        }
+
+        /**
+         * Waits until the game is finished (or removed).
+         */
+        public void await() throws InterruptedException {
+            try {
+                future.get();
+            } catch (ExecutionException | CancellationException ignored) {
+            }
+        }
+    }
+
+    private final Logger logger;
+    private final PlayerStatsStore stats;
+    private final ExecutorService dealers;
+    private final Map<Integer, Game> games = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * @param logger             - the parent logger of all the games' loggers.
+     * @param maxConcurrentGames - the maximal number of games played at the same time.
+     */
+    public GameHost(Logger logger, int maxConcurrentGames) {
+        this(logger, maxConcurrentGames, PlayerStatsStore.disabled());
+    }
+
+    /**
+     * @param logger             - the parent logger of all the games' loggers.
+     * @param maxConcurrentGames - the maximal number of games played at the same time.
+     * @param stats              - the store all the games add their players' statistics to.
+     */
+    public GameHost(Logger logger, int maxConcurrentGames, PlayerStatsStore stats) {
+        this.logger = logger;
+        this.stats = stats;
+        AtomicInteger threads = new AtomicInteger();
+        this.dealers = Executors.newFixedThreadPool(maxConcurrentGames,
+                runnable -> new Thread(runnable, "game-host-" + threads.getAndIncrement()));
+    }
+
+    /**
+     * Adds a game without a window.
+     *
+     * @param config - the configuration of the game.
+     * @return - the new game.
+     */
+    public Game addGame(Config config) {
+        return addGame(config, new HeadlessUserInterface());
+    }
+
+    /**
+     * Adds a game without a window, with a seeded deck.
+     *
+     * @param config - the configuration of the game.
+     * @param seed   - the seed the dealer shuffles the deck with.
+     * @return - the new game.
+     */
+    public Game addGame(Config config, long seed) {
+        return addGame(config, new HeadlessUserInterface(), seed);
+    }
+
+    /**
+     * Adds a game and schedules it to be played.
+     *
+     * @param config - the configuration of the game.
+     * @param ui     - the user interface of the game.
+     * @return - the new game.
+     */
+    public Game addGame(Config config, UserInterface ui) {
+        return addGame(config, ui, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Adds a game and schedules it to be played.
+     *
+     * @param config - the configuration of the game.
+     * @param ui     - the user interface of the game.
+     * @param seed   - the seed the dealer shuffles the deck with.
+     * @return - the new game.
+     */
+    public Game addGame(Config config, UserInterface ui, long seed) {
+        int id = nextId.getAndIncrement();
+        Logger gameLogger = Logger.getAnonymousLogger();
+        gameLogger.setParent(logger);
+        gameLogger.setLevel(logger.getLevel());
+        Game game = new Game(id, new Env(gameLogger, config, ui, new UtilImpl(config), GameJournal.disabled(), stats), seed);
+        // the future is set before the game is published, so removeGame() and shutdown() always find it
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            Thread thread = Thread.currentThread();
+            String name = thread.getName();
+            thread.setName("dealer-game-" + id);
+            game.startedAt = System.nanoTime();
+            try {
+                game.dealer.run();
+            } finally {
+                game.finishedAt = System.nanoTime();
+                thread.setName(name);
+                games.remove(id);
+            }
+        }, null);
+        game.future = task;
+        games.put(id, game);
+        try {
+            dealers.execute(task);
+        } catch (RejectedExecutionException e) {
+            games.remove(id);
+            throw e;
+        }
+        logger.log(Level.INFO, "game " + id + " added.");
+        return game;
+    }
+
+    /**
+     * Removes a game. A game that is waiting to be played is dropped, a running game is terminated.
+     *
+     * @param id - the id of the game.
+     * @return - true iff the game was found.
+     */
+    public boolean removeGame(int id) {
+        Game game = games.remove(id);
+        if (game == null)
+            return false;
+        game.future.cancel(false);
+        game.dealer.terminate();
+        logger.log(Level.INFO, "game " + id + " removed.");
+        return true;
+    }
+
+    /**
+     * @return - the games that were added and are not finished yet.
+     */
+    public Collection<Game> games() {
+        return new ArrayList<>(games.values());
+    }
+
+    /**
+     * Terminates all the games and stops the host's threads.
+     */
+    public void shutdown() {
+        for (Integer id : new ArrayList<>(games.keySet()))
+            removeGame(id);
+        dealers.shutdown();
+    }
+
+    /**
+     * Waits until all the added games are finished and stops the host's threads.
+     */
+    public void awaitAll() throws InterruptedException {
+        dealers.shutdown();
+        dealers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Plays several headless games of config.properties at once.
+     *
+     * @param args - the number of games (default 1) and the number of concurrent games (default the number of cores).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Logger logger = Logger.getLogger("SetGameLogger");
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int concurrent = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Config config = new Config(logger, "config.properties");
+
+        PlayerStatsStore stats = Main.initStats(config);
+
+        GameHost host = new GameHost(logger, concurrent, stats);
+        List<Game> played = new ArrayList<>();
+        for (int i = 0; i < gameCount; i++)
+            played.add(host.addGame(config));
+        host.awaitAll();
+        stats.close();
+
+        for (Game game : played) {
+            StringBuilder sb = new StringBuilder("game ").append(game.id).append(" scores:");
+            for (Player player : game.players)
+                sb.append(' ').append(player.getScore());
+            System.out.println(sb);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package bguspl.set;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An append-only journal of every game event, written into memory-mapped segment files.
+ * <p>
+ * Every record is RECORD_SIZE bytes (big endian): offset 0 - time (long, nanoseconds since the journal was opened),
+ * offset 8 - type (byte), offset 9 - flag (byte), offset 10 - slot (short), offset 12 - player (int),
+ * offset 16 - value (long). Segments are zero filled, and a record of type 0 is not (or not yet completely) written.
+ * <p>
+ * Writers reserve their record with a single atomic add and store it straight into the mapped segment, so recording
+ * an event makes no system call (except when a new segment has to be mapped). The type is written last and marks the
+ * record as complete: a record that was reserved but never completed (e.g. the JVM stopped in between) keeps type 0,
+ * and readers skip it and go on with the records after it.
+ */
+public class GameJournal implements AutoCloseable {
+
+    /**
+     * The size in bytes of every record.
+     */
+    public static final int RECORD_SIZE = 24;
+
+    /**
+     * A game started: player - the number of players, slot - the table size, value - the deck size.
+     */
+    public static final byte GAME_START = 1;
+    /**
+     * A card was placed on the table: slot, value - the card.
+     */
+    public static final byte DEAL = 2;
+    /**
+     * A card was removed from the table: slot, value - the card.
+     */
+    public static final byte REMOVE = 3;
+    /**
+     * A player placed a token: player, slot.
+     */
+    public static final byte TOKEN_PLACED = 4;
+    /**
+     * A player's token was removed: player, slot.
+     */
+    public static final byte TOKEN_REMOVED = 5;
+    /**
+     * A player claimed a set: player.
+     */
+    public static final byte CLAIM = 6;
+    /**
+     * The dealer checked a claim: player, value - VERDICT_POINT, VERDICT_PENALTY or VERDICT_VOID (cards were gone),
+     * flag - true iff more verdicts of the same batch of claims follow (see Config.batchClaims).
+     */
+    public static final byte VERDICT = 7;
+    /**
+     * All the cards were returned to the deck: value - the number of cards in the deck.
+     */
+    public static final byte RESHUFFLE = 8;
+    /**
+     * A player's score changed: player, value - the new score.
+     */
+    public static final byte SCORE = 9;
+    /**
+     * The game ended.
+     */
+    public static final byte GAME_END = 10;
+    /**
+     * The seed the dealer shuffles the deck with: value - the seed.
+     */
+    public static final byte SEED = 11;
+    /**
+     * A player's key press reached the table: player, slot.
+     */
+    public static final byte PRESS = 12;
+
+    public static final long VERDICT_VOID = -1;
+    public static final long VERDICT_PENALTY = 0;
+    public static final long VERDICT_POINT = 1;
+
+    /**
+     * Handles the records read from a journal.
+     */
+    public interface RecordHandler {
+        void record(long time, byte type, boolean flag, int slot, int player, long value);
+    }
+
+    private static final GameJournal DISABLED = new GameJournal();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long startTime;
+    private final AtomicLong position = new AtomicLong();
+
+    /**
+     * The mapped segments (copied on growth, guarded by this for writing).
+     */
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    private GameJournal() {
+        this.directory = null;
+        this.segmentSize = 0;
+        this.startTime = 0;
+    }
+
+    private GameJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize / RECORD_SIZE * RECORD_SIZE;
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * @return - a journal that records nothing.
+     */
+    public static GameJournal disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Opens a new journal.
+     *
+     * @param directory   - the directory of the segment files (created if needed, must not contain a journal).
+     * @param segmentSize - the size in bytes of every segment file.
+     * @return - the journal.
+     */
+    public static GameJournal open(Path directory, int segmentSize) throws IOException {
+        Files.createDirectories(directory);
+        GameJournal journal = new GameJournal(directory, segmentSize);
+        journal.segment(0);
+        return journal;
+    }
+
+    /**
+     * @return - true iff the journal records events.
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    private static Path segmentPath(Path directory, int index) {
+        return directory.resolve(String.format("journal-%06d.bin", index));
+    }
+
+    private MappedByteBuffer segment(int index) throws IOException {
+        MappedByteBuffer[] segments = this.segments;
+        if (index < segments.length)
+            return segments[index];
+        synchronized (this) {
+            segments = this.segments;
+            if (index < segments.length)
+                return segments[index];
+            segments = Arrays.copyOf(segments, index + 1);
+            for (int i = this.segments.length; i <= index; i++)
+                try (FileChannel channel = FileChannel.open(segmentPath(directory, i),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+                }
+            this.segments = segments;
+            return segments[index];
+        }
+    }
+
+    /**
+     * Records an event.
+     *
+     * @param type   - the record type.
+     * @param flag   - a flag (meaning depends on the type).
+     * @param slot   - the slot (or -1).
+     * @param player - the player (or -1).
+     * @param value  - the value (meaning depends on the type).
+     */
+    public void record(byte type, boolean flag, int slot, int player, long value) {
+        if (directory == null)
+            return;
+        long at = position.getAndAdd(RECORD_SIZE);
+        MappedByteBuffer segment;
+        try {
+            segment = segment((int) (at / segmentSize));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        int offset = (int) (at % segmentSize);
+        segment.putLong(offset, System.nanoTime() - startTime);
+        segment.put(offset + 9, (byte) (flag ? 1 : 0));
+        segment.putShort(offset + 10, (short) slot);
+        segment.putInt(offset + 12, player);
+        segment.putLong(offset + 16, value);
+        // the type is written last, it marks the record as complete
+        segment.put(offset + 8, type);
+    }
+
+    /**
+     * Records an event without a flag.
+     */
+    public void record(byte type, int slot, int player, long value) {
+        record(type, false, slot, player, value);
+    }
+
+    /**
+     * Writes all the mapped segments to the disk.
+     */
+    public void flush() {
+        for (MappedByteBuffer segment : segments)
+            segment.force();
+    }
+
+    @Override
+    public void close() {
+        if (directory != null)
+            flush();
+    }
+
+    /**
+     * Reads a journal from the beginning up to its end. Incomplete records (of type 0) are skipped, and so is the
+     * unwritten end of the last segment.
+     *
+     * @param directory - the directory of the segment files.
+     * @param handler   - called for every complete record, in order.
+     * @return - the number of records read.
+     */
+    public static long read(Path directory, RecordHandler handler) throws IOException {
+        long records = 0;
+        for (int index = 0; Files.exists(segmentPath(directory, index)); index++) {
+            ByteBuffer segment;
+            try (FileChannel channel = FileChannel.open(segmentPath(directory, index), StandardOpenOption.READ)) {
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            while (segment.remaining() >= RECORD_SIZE) {
+                long time = segment.getLong();
+                byte type = segment.get();
+                boolean flag = segment.get() != 0;
+                int slot = segment.getShort();
+                int player = segment.getInt();
+                long value = segment.getLong();
+                if (type == 0)
+                    continue;
+                handler.record(time, type, flag, slot, player, value);
+                records++;
+            }
+        }
+        return records;
+    }
+}
@@ -39,6 +39,7 @@ class InputManager extends KeyAdapter {
         }
         int player = keyMap[keyCode] - 1;
         if (player >= 0){
+            env.latency.record(ClaimLatency.Stage.INPUT_DISPATCH, (System.currentTimeMillis() - e.getWhen()) * 1000000L);
             env.logger.log(Level.SEVERE, "Key " + keyCode + " was pressed by player " + player);
             players[player].keyPressed(keyToSlot[keyCode]);
         }
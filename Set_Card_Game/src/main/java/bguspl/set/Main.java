@@ -7,6 +7,7 @@ import bguspl.set.ex.Table;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
@@ -24,32 +25,84 @@ public class Main {
      */
     public static void main(String[] args) {
 
+        StartupProfiler startup = new StartupProfiler();
+        startup.recordJvmStart();
+
         // create the game environment objects
         Logger logger = initLogger(args.length > 0);
+        startup.setLogger(logger);
+        startup.phase("logger");
         Config config = new Config(logger, "config.properties");
-        UserInterfaceImpl ui = new UserInterfaceImpl(logger, config);
+        startup.phase("config");
+        // the card images are loaded in the background
+        UserInterfaceImpl ui = new UserInterfaceImpl(logger, config, startup);
         EventQueue.invokeLater(() -> ui.setVisible(true));
-        Env env = new Env(logger, config, ui, new UtilImpl(config));
+        startup.phase("window");
+        Player[] players = new Player[config.players];
+        // either every change is animated on the screen as it is made, or the screen is rendered frame by frame
+        RenderLoop render = config.frameRate > 0 ? new RenderLoop(ui, config) : null;
+        UserInterface display = render != null ? render : new AnimatedUserInterface(ui, config);
+        RemotePlayerServer server = config.serverPort < 0 ? null : new RemotePlayerServer(logger, config, display, players, config.serverPort);
+        GameJournal journal = initJournal(config);
+        PlayerStatsStore stats = initStats(config);
+        Env env = new Env(logger, config, server == null ? display : server, new UtilImpl(config), journal, stats, startup);
+        startup.phase("environment");
 
         // create the game entities
-        Player[] players = new Player[env.config.players];
         Table table = new Table(env);
         Dealer dealer = new Dealer(env, table, players);
         for (int i = 0; i < players.length; i++)
             players[i] = new Player(env, dealer, table, i, i < env.config.humanPlayers);
         ui.addKeyListener(new InputManager(env, players));
         ui.addWindowListener(new WindowManager(env, dealer));
+        if (render != null)
+            render.start(table, dealer);
+        startup.phase("entities");
+
+        // start accepting remote players
+        if (server != null)
+            server.start();
 
         // start the dealer thread
         Thread dealerThread = new Thread(dealer, "dealer");
         dealerThread.start();
+        startup.phase("dealer start");
+        env.logger.log(Level.INFO, startup.summary());
 
         try {dealerThread.join();} catch (InterruptedException ignored) {}
+        if (render != null)
+            render.stop();
+        if (server != null)
+            server.terminate();
+        journal.close();
+        stats.close();
         env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " terminated.");
         for(Handler h:env.logger.getHandlers())
             h.close();
     }
 
+    private static GameJournal initJournal(Config config) {
+        if (config.journalDirectory.isEmpty())
+            return GameJournal.disabled();
+        SimpleDateFormat format = new SimpleDateFormat("M-d_HH-mm-ss");
+        try {
+            return GameJournal.open(Paths.get(config.journalDirectory, format.format(Calendar.getInstance().getTime())),
+                    config.journalSegmentSize);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static PlayerStatsStore initStats(Config config) {
+        if (config.statsFile.isEmpty())
+            return PlayerStatsStore.disabled();
+        try {
+            return PlayerStatsStore.open(Paths.get(config.statsFile));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static Logger initLogger(boolean disableTimestamp) {
 
         FileHandler fh;
@@ -0,0 +1,136 @@
+package bguspl.set;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds sets of 3 cards (FeatureSize=3) by going over every pair of cards and looking up the only card that completes
+ * the pair to a set, instead of testing every triple of cards.
+ * For every feature the completing value is (-a - b) mod 3, so the id of the completing card is the sum of
+ * per-feature complement tables, and a card-presence bitmap tells whether it is in the collection.
+ */
+public class PairSetFinder implements SetFinder<PairSetFinder.Cards> {
+
+    private final int featureCount;
+    private final int deckSize;
+
+    /**
+     * complement[i][a * 3 + b] is the contribution of feature i to the id of the card completing a pair whose
+     * feature i values are a and b.
+     */
+    private final int[][] complement;
+
+    /**
+     * featureOf[i][card] is the value of feature i of the card.
+     */
+    private final byte[][] featureOf;
+
+    public PairSetFinder(Config config) {
+        if (config.featureSize != 3)
+            throw new IllegalArgumentException("pair lookup works only for sets of 3 cards");
+        featureCount = config.featureCount;
+        deckSize = config.deckSize;
+        complement = new int[featureCount][9];
+        featureOf = new byte[featureCount][deckSize];
+
+        int weight = 1;
+        for (int i = featureCount - 1; i >= 0; --i, weight *= 3) {
+            for (int a = 0; a < 3; a++)
+                for (int b = 0; b < 3; b++)
+                    complement[i][a * 3 + b] = ((6 - a - b) % 3) * weight;
+            for (int card = 0; card < deckSize; card++)
+                featureOf[i][card] = (byte) (card / weight % 3);
+        }
+    }
+
+    /**
+     * @return - the id of the only card that forms a set with the two given cards.
+     */
+    public int thirdCard(int first, int second) {
+        int third = 0;
+        for (int i = 0; i < featureCount; i++)
+            third += complement[i][featureOf[i][first] * 3 + featureOf[i][second]];
+        return third;
+    }
+
+    /**
+     * The cards of a collection and their positions.
+     */
+    public static final class Cards {
+        final int[] cards;
+
+        /**
+         * positions[card] is the index of the card in the collection plus 1 (0 if absent).
+         */
+        final int[] positions;
+
+        Cards(int[] cards, int[] positions) {
+            this.cards = cards;
+            this.positions = positions;
+        }
+    }
+
+    @Override
+    public Cards prepare(int[] cards) {
+        int[] positions = new int[deckSize];
+        for (int i = 0; i < cards.length; i++)
+            positions[cards[i]] = i + 1;
+        return new Cards(cards, positions);
+    }
+
+    @Override
+    public boolean findSetsFrom(Cards collection, int first, List<int[]> sets, AtomicInteger budget) {
+        int[] cards = collection.cards;
+        for (int j = first + 1; j < cards.length; j++) {
+            int third = thirdCard(cards[first], cards[j]);
+            // every set is found once: from its two first cards in the collection
+            if (collection.positions[third] > j + 1) {
+                if (!SetFinder.take(budget))
+                    return true;
+                int[] set = {cards[first], cards[j], third};
+                Arrays.sort(set);
+                sets.add(set);
+                if (budget.get() <= 0)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the sets among the first n cards of an array, without allocating.
+     *
+     * @param cards    - the cards.
+     * @param n        - the number of cards to consider.
+     * @param presence - a bitmap of deckSize bits, must be all clear (it is left clear).
+     * @param limit    - stop counting at this many sets.
+     * @return - the number of sets found (at most limit).
+     */
+    public int countSets(int[] cards, int n, long[] presence, int limit) {
+        for (int i = 0; i < n; i++)
+            presence[cards[i] >>> 6] |= 1L << cards[i];
+        int sets = 0;
+        outer:
+        for (int i = 0; i < n; i++) {
+            // a set is counted once: from its smallest card, with the second card smaller than the third
+            for (int j = 0; j < n; j++) {
+                if (cards[j] <= cards[i])
+                    continue;
+                int third = thirdCard(cards[i], cards[j]);
+                if (third > cards[j] && (presence[third >>> 6] & 1L << third) != 0 && ++sets >= limit)
+                    break outer;
+            }
+        }
+        for (int i = 0; i < n; i++)
+            presence[cards[i] >>> 6] &= ~(1L << cards[i]);
+        return sets;
+    }
+
+    /**
+     * @return - a bitmap large enough for countSets.
+     */
+    public long[] newPresenceBitmap() {
+        return new long[(deckSize + 63) / 64];
+    }
+}
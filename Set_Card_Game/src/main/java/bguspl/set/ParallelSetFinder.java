@@ -0,0 +1,96 @@
+package bguspl.set;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds sets with a SetFinder on a ForkJoinPool: the range of first-card indexes of the collection is split between
+ * tasks, every task collects its sets into its own list, and the lists are concatenated on join (in collection
+ * order). The tasks share the budget of sets to find, and stop as soon as it runs out.
+ *
+ * @param <C> - the search data of the set finder.
+ */
+public class ParallelSetFinder<C> {
+
+    /**
+     * Collections smaller than this are searched on the calling thread.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+
+    /**
+     * The number of tasks per worker thread the first-card range is split into (the first indexes have more work
+     * than the last ones, so the range is split finer than the number of threads).
+     */
+    private static final int TASKS_PER_THREAD = 8;
+
+    private final SetFinder<C> finder;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param finder - the set finder to run.
+     * @param pool   - the pool to run on.
+     */
+    public ParallelSetFinder(SetFinder<C> finder, ForkJoinPool pool) {
+        this.finder = finder;
+        this.pool = pool;
+    }
+
+    /**
+     * Runs on the common pool.
+     */
+    public ParallelSetFinder(SetFinder<C> finder) {
+        this(finder, ForkJoinPool.commonPool());
+    }
+
+    private class Search extends RecursiveTask<List<int[]>> {
+        private static final long serialVersionUID = 1L;
+
+        private final C collection;
+        private final AtomicInteger budget;
+        private final int from, to, grain;
+
+        Search(C collection, AtomicInteger budget, int from, int to, int grain) {
+            this.collection = collection;
+            this.budget = budget;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            if (budget.get() <= 0)
+                return new ArrayList<>(0);
+            if (to - from > grain) {
+                int middle = (from + to) >>> 1;
+                Search left = new Search(collection, budget, from, middle, grain);
+                left.fork();
+                List<int[]> right = new Search(collection, budget, middle, to, grain).compute();
+                List<int[]> sets = left.join();
+                sets.addAll(right);
+                return sets;
+            }
+            List<int[]> sets = new ArrayList<>();
+            for (int first = from; first < to; first++)
+                if (finder.findSetsFrom(collection, first, sets, budget))
+                    break;
+            return sets;
+        }
+    }
+
+    /**
+     * Finds and returns up to count sets in the given collection of cards (see Util.findSets).
+     * When count is smaller than the number of sets, which sets are returned depends on the scheduling of the tasks.
+     */
+    public List<int[]> findSets(List<Integer> deck, int count) {
+        if (deck.size() < SEQUENTIAL_THRESHOLD)
+            return finder.findSets(deck, count);
+        int[] cards = deck.stream().mapToInt(Integer::intValue).toArray();
+        C collection = finder.prepare(cards);
+        int grain = Math.max(1, cards.length / (pool.getParallelism() * TASKS_PER_THREAD));
+        return pool.invoke(new Search(collection, new AtomicInteger(count), 0, cards.length, grain));
+    }
+}
@@ -0,0 +1,347 @@
+package bguspl.set;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lifetime statistics of the players across games, kept in a memory-mapped file of fixed-size records that are
+ * updated in place (one record per player name).
+ * <p>
+ * The file starts with a HEADER_SIZE bytes header: offset 0 - MAGIC (int), offset 4 - the number of records (int).
+ * Every record is RECORD_SIZE bytes (big endian): offset 0 - the length of the name in bytes (short), offset 2 - the
+ * name (UTF-8, up to NAME_SIZE bytes), then points, penalties, claims, the total claim latency in nanoseconds and the
+ * games played (longs).
+ * <p>
+ * The dealer counts the events of a round in a Tally (no locks, no disk) and commits it at the end of the round. The
+ * committed tallies are written into the file by a single background thread, so the game never waits on the disk. The
+ * file is written to the disk when a committed tally ends a game and when the store is closed, not on every commit. A store file is used by a single process at a time (it is locked while open).
+ */
+public class PlayerStatsStore implements AutoCloseable {
+
+    public static final int MAGIC = 0x53455453;
+    public static final int HEADER_SIZE = 16;
+    public static final int NAME_SIZE = 62;
+    public static final int RECORD_SIZE = 2 + NAME_SIZE + 5 * 8;
+
+    private static final int POINTS = 2 + NAME_SIZE;
+    private static final int PENALTIES = POINTS + 8;
+    private static final int CLAIMS = PENALTIES + 8;
+    private static final int LATENCY = CLAIMS + 8;
+    private static final int GAMES = LATENCY + 8;
+
+    private static final PlayerStatsStore DISABLED = new PlayerStatsStore();
+
+    /**
+     * The statistics of a player.
+     */
+    public static final class Stats {
+        public final String name;
+        public final long points;
+        public final long penalties;
+        public final long claims;
+        public final long latencyNanos;
+        public final long games;
+
+        Stats(String name, long points, long penalties, long claims, long latencyNanos, long games) {
+            this.name = name;
+            this.points = points;
+            this.penalties = penalties;
+            this.claims = claims;
+            this.latencyNanos = latencyNanos;
+            this.games = games;
+        }
+
+        /**
+         * @return - the average time in milliseconds from a claim to its verdict (0 if there were no claims).
+         */
+        public double averageLatencyMillis() {
+            return claims == 0 ? 0 : latencyNanos / 1e6 / claims;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: points=%d penalties=%d claims=%d latency=%.3fms games=%d",
+                    name, points, penalties, claims, averageLatencyMillis(), games);
+        }
+    }
+
+    /**
+     * The events of the players of a game since the last commit. Used by the dealer thread only.
+     */
+    public static final class Tally {
+        private final String[] names;
+        private final long[] points;
+        private final long[] penalties;
+        private final long[] claims;
+        private final long[] latencyNanos;
+        private final long[] games;
+
+        Tally(String[] names) {
+            this.names = names.clone();
+            this.points = new long[names.length];
+            this.penalties = new long[names.length];
+            this.claims = new long[names.length];
+            this.latencyNanos = new long[names.length];
+            this.games = new long[names.length];
+        }
+
+        private Tally(Tally other) {
+            this.names = other.names;
+            this.points = other.points.clone();
+            this.penalties = other.penalties.clone();
+            this.claims = other.claims.clone();
+            this.latencyNanos = other.latencyNanos.clone();
+            this.games = other.games.clone();
+        }
+
+        /**
+         * A claim of the player was checked.
+         *
+         * @param player       - the player.
+         * @param verdict      - GameJournal.VERDICT_POINT, VERDICT_PENALTY or VERDICT_VOID.
+         * @param latencyNanos - the time from the claim to its verdict.
+         */
+        public void verdict(int player, long verdict, long latencyNanos) {
+            claims[player]++;
+            this.latencyNanos[player] += latencyNanos;
+            if (verdict == GameJournal.VERDICT_POINT)
+                points[player]++;
+            else if (verdict == GameJournal.VERDICT_PENALTY)
+                penalties[player]++;
+        }
+
+        /**
+         * All the players finished a game.
+         */
+        public void gameOver() {
+            for (int player = 0; player < games.length; player++)
+                games[player]++;
+        }
+
+        private void clear() {
+            Arrays.fill(points, 0);
+            Arrays.fill(penalties, 0);
+            Arrays.fill(claims, 0);
+            Arrays.fill(latencyNanos, 0);
+            Arrays.fill(games, 0);
+        }
+    }
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final ExecutorService writer;
+
+    /**
+     * The record of every name (used by the writer thread only, like the mapped file).
+     */
+    private final Map<String, Integer> records = new HashMap<>();
+    private MappedByteBuffer file;
+
+    private PlayerStatsStore() {
+        this.channel = null;
+        this.lock = null;
+        this.writer = null;
+    }
+
+    private PlayerStatsStore(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.lock = channel.tryLock();
+        if (lock == null)
+            throw new IOException("the statistics file is used by another process");
+        if (channel.size() == 0) {
+            map(16);
+            file.putInt(0, MAGIC);
+        } else {
+            map((int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE));
+            if (file.getInt(0) != MAGIC)
+                throw new IOException("not a statistics file");
+        }
+        for (int record = 0; record < file.getInt(4); record++)
+            records.put(name(record), record);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return - a store that keeps nothing.
+     */
+    public static PlayerStatsStore disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Opens a store (creating the file if needed).
+     *
+     * @param path - the store file.
+     * @return - the store.
+     */
+    public static PlayerStatsStore open(Path path) throws IOException {
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new PlayerStatsStore(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return - true iff the store keeps statistics.
+     */
+    public boolean isEnabled() {
+        return channel != null;
+    }
+
+    /**
+     * @param names - the names of the players of a game (by player id).
+     * @return - an empty tally of the game's players.
+     */
+    public Tally tally(String[] names) {
+        return new Tally(names);
+    }
+
+    /**
+     * Adds a tally to the players' records (in the background) and clears it.
+     *
+     * @param tally - the tally.
+     */
+    public void commit(Tally tally) {
+        if (!isEnabled())
+            return;
+        Tally copy = new Tally(tally);
+        tally.clear();
+        writer.execute(() -> {
+            boolean gameOver = false;
+            for (int player = 0; player < copy.names.length; player++) {
+                int record = record(copy.names[player]);
+                add(record, POINTS, copy.points[player]);
+                add(record, PENALTIES, copy.penalties[player]);
+                add(record, CLAIMS, copy.claims[player]);
+                add(record, LATENCY, copy.latencyNanos[player]);
+                add(record, GAMES, copy.games[player]);
+                gameOver |= copy.games[player] > 0;
+            }
+            if (gameOver)
+                file.force();
+        });
+    }
+
+    /**
+     * Reads the statistics of a player (after all the tallies committed so far were added).
+     *
+     * @param name - the player's name.
+     * @return - the statistics (all zero if the player has none).
+     */
+    public Stats get(String name) {
+        if (!isEnabled())
+            return new Stats(name, 0, 0, 0, 0, 0);
+        try {
+            return writer.submit(() -> {
+                Integer record = records.get(key(name));
+                if (record == null)
+                    return new Stats(name, 0, 0, 0, 0, 0);
+                int at = offset(record);
+                return new Stats(name, file.getLong(at + POINTS), file.getLong(at + PENALTIES),
+                        file.getLong(at + CLAIMS), file.getLong(at + LATENCY), file.getLong(at + GAMES));
+            }).get();
+        } catch (Exception e) {
+            throw new IllegalStateException("cannot read the statistics of " + name, e);
+        }
+    }
+
+    /**
+     * Writes the committed tallies, writes the file to the disk and closes it.
+     */
+    @Override
+    public void close() {
+        if (!isEnabled())
+            return;
+        writer.execute(() -> file.force());
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            lock.release();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static int offset(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    private void map(int capacity) throws IOException {
+        file = channel.map(FileChannel.MapMode.READ_WRITE, 0, offset(capacity));
+    }
+
+    /**
+     * @return - the name as it is kept in the file (at most NAME_SIZE bytes).
+     */
+    private static String key(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= NAME_SIZE ? name : new String(bytes, 0, NAME_SIZE, StandardCharsets.UTF_8);
+    }
+
+    private String name(int record) {
+        int at = offset(record);
+        byte[] bytes = new byte[file.getShort(at)];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = file.get(at + 2 + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return - the record of the name (added if missing).
+     */
+    private int record(String name) {
+        String key = key(name);
+        Integer record = records.get(key);
+        if (record != null)
+            return record;
+        record = records.size();
+        int capacity = (file.capacity() - HEADER_SIZE) / RECORD_SIZE;
+        if (record == capacity)
+            try {
+                // a file holding just the header has no records to double
+                map(Math.max(1, capacity * 2));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, NAME_SIZE);
+        int at = offset(record);
+        file.putShort(at, (short) length);
+        for (int i = 0; i < length; i++)
+            file.put(at + 2 + i, bytes[i]);
+        // the record is counted after it is written
+        file.putInt(4, record + 1);
+        records.put(key, record);
+        return record;
+    }
+
+    private void add(int record, int field, long value) {
+        int at = offset(record) + field;
+        file.putLong(at, file.getLong(at) + value);
+    }
+}
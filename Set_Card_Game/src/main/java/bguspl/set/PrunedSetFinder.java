@@ -0,0 +1,145 @@
+package bguspl.set;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds sets of featureSize cards with a backtracking search over the collection, in the order of the collection.
+ * Every feature of a partial combination keeps whether it can still be all-same and whether it can still be
+ * all-different; a partial combination is abandoned as soon as a feature can be neither, or when there are not
+ * enough cards left to complete it.
+ */
+public class PrunedSetFinder implements SetFinder<PrunedSetFinder.Cards> {
+
+    /**
+     * A feature of the partial combination can still be all-same.
+     */
+    private static final int SAME = 1;
+
+    /**
+     * A feature of the partial combination can still be all-different.
+     */
+    private static final int DIFFERENT = 2;
+
+    private final int featureCount;
+    private final int featureSize;
+
+    public PrunedSetFinder(Config config) {
+        if (config.featureSize > Integer.SIZE)
+            throw new IllegalArgumentException("feature size must be at most " + Integer.SIZE);
+        featureCount = config.featureCount;
+        featureSize = config.featureSize;
+    }
+
+    /**
+     * The cards of a collection and their features.
+     */
+    public static final class Cards {
+        final int[] cards;
+
+        /**
+         * features[i * featureCount + f] is the value of feature f of the i-th card of the collection.
+         */
+        final int[] features;
+
+        Cards(int[] cards, int[] features) {
+            this.cards = cards;
+            this.features = features;
+        }
+    }
+
+    @Override
+    public Cards prepare(int[] cards) {
+        int[] features = new int[cards.length * featureCount];
+        for (int i = 0; i < cards.length; i++) {
+            int card = cards[i];
+            for (int f = featureCount - 1; f >= 0; --f) {
+                features[i * featureCount + f] = card % featureSize;
+                card /= featureSize;
+            }
+        }
+        return new Cards(cards, features);
+    }
+
+    @Override
+    public boolean findSetsFrom(Cards collection, int first, List<int[]> sets, AtomicInteger budget) {
+        Search search = new Search(collection, sets, budget);
+        Arrays.fill(search.possible[0], SAME | DIFFERENT);
+        if (!search.extend(0, first))
+            return false;
+        search.chosen[0] = first;
+        return search.search(1, first + 1);
+    }
+
+    /**
+     * The search state of one thread.
+     */
+    private class Search {
+        final int[] cards;
+        final int[] features;
+        final List<int[]> sets;
+        final AtomicInteger budget;
+
+        /**
+         * The chosen indexes, and for every depth and feature the used values and the SAME/DIFFERENT flags.
+         */
+        final int[] chosen = new int[featureSize];
+        final int[][] used = new int[featureSize + 1][featureCount];
+        final int[][] possible = new int[featureSize + 1][featureCount];
+
+        Search(Cards collection, List<int[]> sets, AtomicInteger budget) {
+            this.cards = collection.cards;
+            this.features = collection.features;
+            this.sets = sets;
+            this.budget = budget;
+        }
+
+        /**
+         * Adds the i-th card at the given depth.
+         *
+         * @return - true iff the combination can still become a set.
+         */
+        boolean extend(int depth, int i) {
+            int[] used = this.used[depth], possible = this.possible[depth];
+            int[] nextUsed = this.used[depth + 1], nextPossible = this.possible[depth + 1];
+            for (int f = 0; f < featureCount; f++) {
+                int bit = 1 << features[i * featureCount + f];
+                int state = possible[f];
+                if ((used[f] & bit) != 0)
+                    state &= ~DIFFERENT;
+                else if (depth > 0)
+                    state &= ~SAME;
+                if (state == 0)
+                    return false;
+                nextUsed[f] = used[f] | bit;
+                nextPossible[f] = state;
+            }
+            return true;
+        }
+
+        /**
+         * @return - true iff the budget ran out.
+         */
+        boolean search(int depth, int from) {
+            if (depth == featureSize) {
+                if (!SetFinder.take(budget))
+                    return true;
+                int[] set = new int[featureSize];
+                for (int k = 0; k < featureSize; k++)
+                    set[k] = cards[chosen[k]];
+                Arrays.sort(set);
+                sets.add(set);
+                return budget.get() <= 0;
+            }
+            for (int i = from; i <= cards.length - (featureSize - depth); i++) {
+                if (!extend(depth, i))
+                    continue;
+                chosen[depth] = i;
+                if (search(depth + 1, i + 1))
+                    return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package bguspl.set;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A load testing client for the RemotePlayerServer. It opens many connections from a single thread, presses random
+ * slots on all of them at a fixed rate and counts the update events received.
+ * <p>
+ * Connections the server refuses (it is full) or closes are counted and dropped, the others go on.
+ */
+public class RemotePlayerClient {
+
+    /**
+     * A connection, and the first event the server sent on it (which tells the connection's role).
+     */
+    private static class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer greeting = ByteBuffer.allocate(GameEventEncoder.EVENT_SIZE);
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * @param args - host, port, number of connections, key presses per second per connection, duration in seconds.
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7777;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int pressesPerSecond = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        long durationMillis = (args.length > 4 ? Long.parseLong(args[4]) : 10) * 1000;
+        int slots = args.length > 5 ? Integer.parseInt(args[5]) : 12;
+
+        List<Connection> open = new ArrayList<>();
+        long received = 0, sent = 0;
+        int failed = 0, players = 0, spectators = 0, refused = 0, closed = 0;
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connections; i++) {
+                try {
+                    SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+                    channel.configureBlocking(false);
+                    Connection connection = new Connection(channel);
+                    channel.register(selector, SelectionKey.OP_READ, connection);
+                    open.add(connection);
+                } catch (IOException e) {
+                    failed++;
+                }
+            }
+
+            ByteBuffer in = ByteBuffer.allocateDirect(64 * 1024);
+            ByteBuffer out = ByteBuffer.allocate(1);
+            long start = System.currentTimeMillis();
+            long end = start + durationMillis;
+            long interval = Math.max(1, 1000 / Math.max(1, pressesPerSecond));
+            long nextPress = start;
+            while (System.currentTimeMillis() < end && !open.isEmpty()) {
+                long now = System.currentTimeMillis();
+                if (now >= nextPress) {
+                    for (Connection connection : open) {
+                        if (!connection.channel.isOpen())
+                            continue;
+                        out.clear();
+                        out.put((byte) ThreadLocalRandom.current().nextInt(slots)).flip();
+                        try {
+                            sent += connection.channel.write(out);
+                        } catch (IOException e) {
+                            // closed by the server, it is counted when its end of stream is read
+                        }
+                    }
+                    nextPress += interval;
+                }
+                selector.select(Math.max(1, nextPress - System.currentTimeMillis()));
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Connection connection = (Connection) key.attachment();
+                    in.clear();
+                    int read;
+                    try {
+                        read = connection.channel.read(in);
+                    } catch (IOException e) {
+                        read = -1;
+                    }
+                    if (read > 0) {
+                        received += read;
+                        if (connection.greeting.hasRemaining()) {
+                            in.flip();
+                            while (in.hasRemaining() && connection.greeting.hasRemaining())
+                                connection.greeting.put(in.get());
+                            if (!connection.greeting.hasRemaining()) {
+                                // the PLAYER event: the flag is set if the server is full, player -1 for a spectator
+                                if (connection.greeting.get(1) != 0)
+                                    refused++;
+                                else if (connection.greeting.getInt(4) < 0)
+                                    spectators++;
+                                else
+                                    players++;
+                            }
+                        }
+                    } else if (read < 0) {
+                        key.cancel();
+                        connection.channel.close();
+                        open.remove(connection);
+                        closed++;
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+            for (Connection connection : open)
+                connection.channel.close();
+        }
+        System.out.println("connections: " + connections + " (players: " + players + ", spectators: " + spectators
+                + ", refused: " + refused + ", failed: " + failed + ", closed by the server: " + closed + ")"
+                + " presses sent: " + sent + " update events received: " + received / GameEventEncoder.EVENT_SIZE);
+    }
+}
@@ -0,0 +1,464 @@
+package bguspl.set;
+
+import bguspl.set.ex.Player;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class accepts remote players over TCP and feeds their key presses to the players, on a single event loop
+ * thread. It is also a UserInterface (wrapping the real one), so every game update is pushed back to the clients.
+ * <p>
+ * Protocol: every byte sent by a client is a slot number it presses. The server sends GameEventEncoder events: first
+ * a PLAYER event with the client's player id, then the current state of the game (every slot's card as a PLACE_CARD or
+ * REMOVE_CARD event, every player's score as a SCORE event and every token as a PLACE_TOKEN event), and from then on
+ * every update of the game. When all the human players are taken, a client is a spectator: its PLAYER event has player -1
+ * and its key presses are ignored. Beyond config.maxRemoteConnections connections, the PLAYER event has player -1 and
+ * its flag set, and the connection is closed.
+ * Updates are encoded into pooled buffers and every filled buffer is written to all the clients at once. If the event
+ * loop falls so far behind that the pool is full and updates are dropped, the clients are sent all the tokens removed
+ * and then the current state again, so they do not show a stale board.
+ */
+public class RemotePlayerServer implements UserInterface, Runnable {
+
+    /**
+     * Clients whose pending output grows beyond this many bytes are disconnected.
+     */
+    private static final int MAX_PENDING_OUTPUT = 1 << 20;
+
+    /**
+     * The number of buffers of updates (256 events each) kept for the event loop before updates are dropped.
+     */
+    private static final int MAX_EVENT_BUFFERS = 64;
+
+    private final Logger logger;
+    private final Config config;
+    private final GameEventEncoder events;
+    private final Player[] players;
+    private final int port;
+
+    /**
+     * The current board (card per slot, -1 if none), used to greet new clients (guarded by itself, like the scores and
+     * the tokens).
+     */
+    private final int[] board;
+
+    /**
+     * The current score of every player.
+     */
+    private final int[] scores;
+
+    /**
+     * The current tokens: tokens[player][slot] is true iff the player has a token on the slot.
+     */
+    private final boolean[][] tokens;
+
+    /**
+     * The connection of every player that can be played remotely (null if free).
+     */
+    private final Connection[] connections;
+
+    /**
+     * The number of open connections, players and spectators (accessed by the loop thread only).
+     */
+    private int connected;
+
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(4096);
+
+    /**
+     * The number of dropped updates the clients were already resynchronized for (accessed by the loop thread only).
+     */
+    private long resynchronizedDrops;
+
+    private volatile Selector selector;
+    private volatile boolean terminate;
+    private Thread loopThread;
+
+    private static class Connection {
+        /**
+         * The player id, -1 for a spectator.
+         */
+        private final int player;
+        private final SocketChannel channel;
+        private ByteBuffer pending = ByteBuffer.allocate(256);
+
+        private Connection(int player, SocketChannel channel) {
+            this.player = player;
+            this.channel = channel;
+            this.pending.flip();
+        }
+    }
+
+    /**
+     * @param logger  - the logger.
+     * @param config  - the game configuration.
+     * @param ui      - the user interface to forward every update to.
+     * @param players - the players (remote clients are assigned to the human players).
+     * @param port    - the TCP port to listen on.
+     */
+    public RemotePlayerServer(Logger logger, Config config, UserInterface ui, Player[] players, int port) {
+        this.logger = logger;
+        this.config = config;
+        this.events = new GameEventEncoder(ui, 4, MAX_EVENT_BUFFERS, 256, this::wakeup);
+        this.players = players;
+        this.port = port;
+        this.board = new int[config.tableSize];
+        Arrays.fill(board, -1);
+        this.scores = new int[players.length];
+        this.tokens = new boolean[players.length][config.tableSize];
+        this.connections = new Connection[config.humanPlayers];
+    }
+
+    /**
+     * Starts the event loop thread.
+     */
+    public void start() {
+        loopThread = new Thread(this, "remote-input");
+        loopThread.start();
+    }
+
+    /**
+     * Stops the event loop thread and closes all the connections.
+     */
+    public void terminate() {
+        terminate = true;
+        Selector selector = this.selector;
+        if (selector != null)
+            selector.wakeup();
+        if (loopThread != null)
+            try {
+                loopThread.join();
+            } catch (InterruptedException ignored) {
+            }
+    }
+
+    @Override
+    public void run() {
+        logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " starting.");
+        try (Selector selector = Selector.open(); ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            this.selector = selector;
+            logger.log(Level.INFO, "listening for remote players on port " + port);
+
+            while (!terminate) {
+                selector.select();
+                wakeupPending.set(false);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable())
+                        accept(server);
+                    else {
+                        if (key.isReadable())
+                            read(key);
+                        if (key.isValid() && key.isWritable())
+                            flush(key);
+                    }
+                }
+                broadcast();
+            }
+            for (SelectionKey key : selector.keys())
+                key.channel().close();
+        } catch (IOException | ClosedSelectorException e) {
+            logger.log(Level.WARNING, "remote player server stopped: " + e);
+        }
+        logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " terminated.");
+    }
+
+    private void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null)
+            return;
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+
+        if (connected >= config.maxRemoteConnections) {
+            ByteBuffer full = ByteBuffer.allocate(GameEventEncoder.EVENT_SIZE);
+            GameEventEncoder.write(full, GameEventEncoder.PLAYER, true, -1, -1, 0);
+            full.flip();
+            channel.write(full);
+            channel.close();
+            return;
+        }
+
+        int player = 0;
+        while (player < connections.length && connections[player] != null)
+            player++;
+        if (player == connections.length)
+            player = -1;
+
+        Connection connection = new Connection(player, channel);
+        if (player >= 0)
+            connections[player] = connection;
+        connected++;
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ, connection);
+        send(key, stateEvents(GameEventEncoder.PLAYER, player));
+        logger.log(Level.INFO, (player >= 0 ? "remote player " + player : "spectator") + " connected from "
+                + channel.getRemoteAddress());
+    }
+
+    private void read(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        readBuffer.clear();
+        int read;
+        try {
+            read = connection.channel.read(readBuffer);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            disconnect(key);
+            return;
+        }
+        if (connection.player < 0)
+            return;
+        readBuffer.flip();
+        Player player = players[connection.player];
+        while (readBuffer.hasRemaining()) {
+            int slot = readBuffer.get() & 0xff;
+            if (slot < config.tableSize)
+                player.keyPressed(slot);
+        }
+    }
+
+    /**
+     * Writes the encoded updates to all the clients.
+     */
+    private void broadcast() {
+        ByteBuffer buffer;
+        while ((buffer = events.drain()) != null) {
+            for (SelectionKey key : selector.keys())
+                if (key.isValid() && key.attachment() != null)
+                    send(key, buffer.duplicate());
+            events.release(buffer);
+        }
+        long dropped = events.dropped();
+        if (dropped != resynchronizedDrops) {
+            logger.log(Level.WARNING, (dropped - resynchronizedDrops) + " updates dropped, resending the board.");
+            resynchronizedDrops = dropped;
+            for (SelectionKey key : selector.keys())
+                if (key.isValid() && key.attachment() != null)
+                    send(key, stateEvents(GameEventEncoder.REMOVE_ALL_TOKENS, -1));
+        }
+    }
+
+    /**
+     * @param first  - the type of the first event.
+     * @param player - the player of the first event.
+     * @return - the first event, and then the current state as events: every slot's card placed or removed, every
+     * player's score and every token placed.
+     */
+    private ByteBuffer stateEvents(byte first, int player) {
+        synchronized (board) {
+            int placed = 0;
+            for (boolean[] playerTokens : tokens)
+                for (boolean token : playerTokens)
+                    if (token)
+                        placed++;
+            ByteBuffer events = ByteBuffer.allocate(
+                    GameEventEncoder.EVENT_SIZE * (1 + board.length + scores.length + placed));
+            GameEventEncoder.write(events, first, false, -1, player, 0);
+            for (int slot = 0; slot < board.length; slot++)
+                if (board[slot] >= 0)
+                    GameEventEncoder.write(events, GameEventEncoder.PLACE_CARD, false, slot, -1, board[slot]);
+                else
+                    GameEventEncoder.write(events, GameEventEncoder.REMOVE_CARD, false, slot, -1, 0);
+            for (int id = 0; id < scores.length; id++)
+                GameEventEncoder.write(events, GameEventEncoder.SCORE, false, -1, id, scores[id]);
+            for (int id = 0; id < tokens.length; id++)
+                for (int slot = 0; slot < tokens[id].length; slot++)
+                    if (tokens[id][slot])
+                        GameEventEncoder.write(events, GameEventEncoder.PLACE_TOKEN, false, slot, id, 0);
+            events.flip();
+            return events;
+        }
+    }
+
+    /**
+     * Writes as much as possible of data to the client and keeps the rest until the client can accept it.
+     */
+    private void send(SelectionKey key, ByteBuffer data) {
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (!connection.pending.hasRemaining())
+                connection.channel.write(data);
+        } catch (IOException e) {
+            disconnect(key);
+            return;
+        }
+        if (!data.hasRemaining())
+            return;
+
+        ByteBuffer pending = connection.pending;
+        if (pending.remaining() + data.remaining() > MAX_PENDING_OUTPUT) {
+            logger.log(Level.WARNING, "remote player " + connection.player + " is too slow, disconnecting.");
+            disconnect(key);
+            return;
+        }
+        pending.compact();
+        if (pending.remaining() < data.remaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + data.remaining()));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        pending.put(data).flip();
+        connection.pending = pending;
+        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    private void flush(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        try {
+            connection.channel.write(connection.pending);
+        } catch (IOException e) {
+            disconnect(key);
+            return;
+        }
+        if (!connection.pending.hasRemaining())
+            key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void disconnect(SelectionKey key) {
+        if (!key.isValid())
+            return;
+        Connection connection = (Connection) key.attachment();
+        key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+        }
+        if (connection.player >= 0)
+            connections[connection.player] = null;
+        connected--;
+        logger.log(Level.INFO, (connection.player >= 0 ? "remote player " + connection.player : "spectator")
+                + " disconnected.");
+    }
+
+    /**
+     * Wakes the event loop up to send new updates (once per batch).
+     */
+    private void wakeup() {
+        Selector selector = this.selector;
+        if (selector != null && wakeupPending.compareAndSet(false, true))
+            selector.wakeup();
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+        synchronized (board) {
+            board[slot] = card;
+        }
+        events.placeCard(card, slot);
+    }
+
+    @Override
+    public void removeCard(int slot) {
+        synchronized (board) {
+            board[slot] = -1;
+        }
+        events.removeCard(slot);
+    }
+
+    @Override
+    public void placeCards(int[] cards, int[] slots) {
+        synchronized (board) {
+            for (int i = 0; i < cards.length; i++)
+                board[slots[i]] = cards[i];
+        }
+        events.placeCards(cards, slots);
+    }
+
+    @Override
+    public void removeCards(int[] slots) {
+        synchronized (board) {
+            for (int slot : slots)
+                board[slot] = -1;
+        }
+        events.removeCards(slots);
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        events.setCountdown(millies, warn);
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        events.setElapsed(millies);
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+        synchronized (board) {
+            scores[player] = score;
+        }
+        events.setScore(player, score);
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+        events.setFreeze(player, millies);
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+        synchronized (board) {
+            tokens[player][slot] = true;
+        }
+        events.placeToken(player, slot);
+    }
+
+    @Override
+    public void removeTokens() {
+        synchronized (board) {
+            for (boolean[] playerTokens : tokens)
+                Arrays.fill(playerTokens, false);
+        }
+        events.removeTokens();
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+        synchronized (board) {
+            for (boolean[] playerTokens : tokens)
+                playerTokens[slot] = false;
+        }
+        events.removeTokens(slot);
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+        synchronized (board) {
+            tokens[player][slot] = false;
+        }
+        events.removeToken(player, slot);
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        events.announceWinner(players);
+    }
+
+    @Override
+    public boolean isAnimating() {
+        return events.isAnimating();
+    }
+}
@@ -0,0 +1,253 @@
+package bguspl.set;
+
+import bguspl.set.ex.BoardSnapshot;
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.PlayerRegistry;
+import bguspl.set.ex.Scoreboard;
+import bguspl.set.ex.Table;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Renders the game on the screen at a fixed frame rate (config.frameRate), on the Swing event dispatch thread.
+ * <p>
+ * This is the UserInterface the game threads update, but it never touches Swing: the changes of the board, the
+ * tokens and the scores are ignored, and the timer and the winners are only recorded. Every frame reads the
+ * immutable board of the table (Table.snapshot()), the scores (Dealer.scoreboard()) and the freezes
+ * (Dealer.registry()), and pushes to the screen only what changed since the previous frame. So rendering takes at
+ * most one diff of the board per frame, however many changes are made between two frames.
+ */
+public class RenderLoop implements UserInterface {
+
+    /**
+     * The kinds of time shown by the timer.
+     */
+    private static final int TIMER_COUNTDOWN = 1;
+    private static final int TIMER_WARNING = 2;
+    private static final int TIMER_ELAPSED = 3;
+
+    private final UserInterface screen;
+    private final int delayMillis;
+
+    /**
+     * The time to show, as (milliseconds << 2 | kind), -1 if none (written by the game threads).
+     */
+    private volatile long timer = -1;
+
+    /**
+     * The winners to announce, null if the game is not over (written by the game threads).
+     */
+    private volatile int[] winners;
+
+    private volatile Table table;
+    private volatile Dealer dealer;
+    private Timer ticker;
+
+    /**
+     * What the screen shows (accessed by the rendering thread only).
+     */
+    private final int[] shownCards;
+    private final boolean[][] shownTokens;
+    private final int[] shownScores;
+    private final long[] shownFreezeSeconds;
+    private long shownVersion = -1;
+    private long shownTimer = -1;
+    private boolean shownWinners;
+
+    /**
+     * @param screen - the user interface to render on (a Swing one: it is only called on the event dispatch thread).
+     * @param config - the game configuration.
+     */
+    public RenderLoop(UserInterface screen, Config config) {
+        this.screen = screen;
+        this.delayMillis = Math.max(1, 1000 / Math.max(1, config.frameRate));
+        this.shownCards = new int[config.tableSize];
+        Arrays.fill(shownCards, -1);
+        this.shownTokens = new boolean[config.players][config.tableSize];
+        this.shownScores = new int[config.players];
+        this.shownFreezeSeconds = new long[config.players];
+    }
+
+    /**
+     * Starts rendering a game.
+     *
+     * @param table  - the table of the game.
+     * @param dealer - the dealer of the game.
+     */
+    public void start(Table table, Dealer dealer) {
+        attach(table, dealer);
+        EventQueue.invokeLater(() -> {
+            ticker = new Timer(delayMillis, event -> render());
+            ticker.setCoalesce(true);
+            ticker.start();
+        });
+    }
+
+    /**
+     * Sets the game the frames are rendered from.
+     */
+    void attach(Table table, Dealer dealer) {
+        this.table = table;
+        this.dealer = dealer;
+    }
+
+    /**
+     * Stops rendering, after a last frame.
+     */
+    public void stop() {
+        EventQueue.invokeLater(() -> {
+            if (ticker != null)
+                ticker.stop();
+            render();
+        });
+    }
+
+    /**
+     * Renders a frame: pushes to the screen what changed since the previous one.
+     */
+    void render() {
+        Table table = this.table;
+        Dealer dealer = this.dealer;
+        if (table == null || dealer == null)
+            return;
+
+        BoardSnapshot board = table.snapshot();
+        if (board.version != shownVersion) {
+            renderBoard(board);
+            shownVersion = board.version;
+        }
+
+        Scoreboard scoreboard = dealer.scoreboard();
+        PlayerRegistry registry = dealer.registry();
+        long now = System.currentTimeMillis();
+        for (int player = 0; player < shownScores.length; player++) {
+            int score = scoreboard.score(player);
+            if (score != shownScores[player]) {
+                shownScores[player] = score;
+                screen.setScore(player, score);
+            }
+            // a freeze is shown in whole seconds, rounded up (as the players show it)
+            long freeze = registry.freezeRemaining(player, now);
+            long seconds = freeze > 0 ? (freeze + 1000) / 1000 : 0;
+            if (seconds != shownFreezeSeconds[player]) {
+                shownFreezeSeconds[player] = seconds;
+                screen.setFreeze(player, freeze > 0 ? freeze + 1000 : 0);
+            }
+        }
+
+        long timer = this.timer;
+        if (timer != shownTimer && timer != -1) {
+            shownTimer = timer;
+            long millies = timer >>> 2;
+            int kind = (int) (timer & 3);
+            if (kind == TIMER_ELAPSED)
+                screen.setElapsed(millies);
+            else
+                screen.setCountdown(millies, kind == TIMER_WARNING);
+        }
+
+        int[] winners = this.winners;
+        if (winners != null && !shownWinners) {
+            shownWinners = true;
+            screen.announceWinner(winners);
+        }
+    }
+
+    private void renderBoard(BoardSnapshot board) {
+        int size = Math.min(board.tableSize(), shownCards.length);
+        int[] slots = new int[size];
+        int[] cards = new int[size];
+        int placed = 0;
+        int[] removedSlots = new int[size];
+        int removed = 0;
+
+        // the tokens removed first (a card is removed with the tokens on it)
+        for (int player = 0; player < shownTokens.length; player++)
+            for (int slot = 0; slot < size; slot++)
+                if (shownTokens[player][slot] && !board.hasToken(player, slot)) {
+                    shownTokens[player][slot] = false;
+                    screen.removeToken(player, slot);
+                }
+
+        for (int slot = 0; slot < size; slot++) {
+            int card = board.card(slot);
+            if (card == shownCards[slot])
+                continue;
+            if (card == -1) {
+                removedSlots[removed++] = slot;
+            } else {
+                slots[placed] = slot;
+                cards[placed++] = card;
+            }
+            shownCards[slot] = card;
+        }
+        if (removed > 0)
+            screen.removeCards(Arrays.copyOf(removedSlots, removed));
+        if (placed > 0)
+            screen.placeCards(Arrays.copyOf(cards, placed), Arrays.copyOf(slots, placed));
+
+        for (int player = 0; player < shownTokens.length; player++)
+            for (int slot = 0; slot < size; slot++)
+                if (!shownTokens[player][slot] && board.hasToken(player, slot)) {
+                    shownTokens[player][slot] = true;
+                    screen.placeToken(player, slot);
+                }
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+    }
+
+    @Override
+    public void removeCard(int slot) {
+    }
+
+    @Override
+    public void placeCards(int[] cards, int[] slots) {
+    }
+
+    @Override
+    public void removeCards(int[] slots) {
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        timer = millies << 2 | (warn ? TIMER_WARNING : TIMER_COUNTDOWN);
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        timer = millies << 2 | TIMER_ELAPSED;
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+    }
+
+    @Override
+    public void removeTokens() {
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        winners = players.clone();
+    }
+}
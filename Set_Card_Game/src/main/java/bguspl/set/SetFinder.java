@@ -0,0 +1,54 @@
+package bguspl.set;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A set search that enumerates the sets of a collection of cards by the index of their first card in the collection,
+ * so the collection can be searched on one thread or split between threads (see ParallelSetFinder).
+ *
+ * @param <C> - the read-only search data of a collection, shared by all the threads searching it.
+ */
+public interface SetFinder<C> {
+
+    /**
+     * @param cards - the collection of cards.
+     * @return - the search data of the collection.
+     */
+    C prepare(int[] cards);
+
+    /**
+     * Finds the sets whose first card (in collection order) is the card at the given index.
+     *
+     * @param collection - the search data of the collection.
+     * @param first      - the index of the first card.
+     * @param sets       - the list to add the sets to.
+     * @param budget     - the number of sets still to find (shared, a set is added only after it is taken from it).
+     * @return - true iff the budget ran out.
+     */
+    boolean findSetsFrom(C collection, int first, List<int[]> sets, AtomicInteger budget);
+
+    /**
+     * Takes a set from the budget.
+     *
+     * @return - false iff the budget already ran out (the set should not be added).
+     */
+    static boolean take(AtomicInteger budget) {
+        return budget.getAndDecrement() > 0;
+    }
+
+    /**
+     * Finds and returns up to count sets in the given collection of cards (see Util.findSets).
+     */
+    default List<int[]> findSets(List<Integer> deck, int count) {
+        int[] cards = deck.stream().mapToInt(Integer::intValue).toArray();
+        C collection = prepare(cards);
+        List<int[]> sets = new LinkedList<>();
+        AtomicInteger budget = new AtomicInteger(count);
+        for (int first = 0; first < cards.length; first++)
+            if (findSetsFrom(collection, first, sets, budget))
+                break;
+        return sets;
+    }
+}
@@ -0,0 +1,105 @@
+package bguspl.set;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Times the startup of a game: the phases the main thread goes through one after the other (each timed from the end
+ * of the previous one), and the milestones reached by the other threads (each timed from the start of the profiler,
+ * and recorded only the first time it is reached, e.g. the first card dealt).
+ */
+public class StartupProfiler {
+
+    private final long start;
+    private final long startMillis;
+    private long last;
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final Map<String, Long> milestones = new LinkedHashMap<>();
+
+    /**
+     * The logger the milestones are reported to as they are reached (null until set).
+     */
+    private volatile Logger logger;
+
+    public StartupProfiler() {
+        this.start = System.nanoTime();
+        this.startMillis = System.currentTimeMillis();
+        this.last = start;
+    }
+
+    /**
+     * Records the time from the JVM start until the profiler was created as a phase ("jvm", in milliseconds
+     * resolution). The time spent reading the JVM start is left out of the next phase.
+     */
+    public synchronized void recordJvmStart() {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        phases.put("jvm", TimeUnit.MILLISECONDS.toNanos(Math.max(0, startMillis - jvmStart)));
+        last = System.nanoTime();
+    }
+
+    /**
+     * @param logger - the logger to report the milestones reached from now on to.
+     */
+    public void setLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Ends a phase of the main thread.
+     *
+     * @param name - the name of the phase.
+     */
+    public synchronized void phase(String name) {
+        long now = System.nanoTime();
+        phases.put(name, now - last);
+        last = now;
+    }
+
+    /**
+     * Records a milestone (only the first time it is reached).
+     *
+     * @param name - the name of the milestone.
+     */
+    public void milestone(String name) {
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            if (milestones.containsKey(name))
+                return;
+            milestones.put(name, elapsed);
+        }
+        Logger logger = this.logger;
+        if (logger != null)
+            logger.log(Level.INFO, String.format("startup: %s after %.1f ms", name, elapsed / 1e6));
+    }
+
+    /**
+     * @return - the duration in nanoseconds of every phase, in order.
+     */
+    public synchronized Map<String, Long> phases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    /**
+     * @return - the time in nanoseconds from the start of the profiler to every milestone, in the order reached.
+     */
+    public synchronized Map<String, Long> milestones() {
+        return new LinkedHashMap<>(milestones);
+    }
+
+    /**
+     * @return - a human readable summary of the phases and the milestones.
+     */
+    public synchronized String summary() {
+        StringBuilder sb = new StringBuilder("startup phases (ms):");
+        for (Map.Entry<String, Long> phase : phases.entrySet())
+            sb.append(String.format(" %s=%.1f", phase.getKey(), phase.getValue() / 1e6));
+        sb.append(System.lineSeparator()).append("startup milestones (ms):");
+        for (Map.Entry<String, Long> milestone : milestones.entrySet())
+            sb.append(String.format(" %s=%.1f", milestone.getKey(), milestone.getValue() / 1e6));
+        return sb.toString();
+    }
+}
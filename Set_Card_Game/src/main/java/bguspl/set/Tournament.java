@@ -0,0 +1,220 @@
+package bguspl.set;
+
+import bguspl.set.ex.ComputerStrategy;
+import bguspl.set.ex.Player;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plays many headless computer-only games in parallel (on a GameHost) and aggregates the results per computer
+ * strategy: win rate, sets and penalties per game, and the games' duration.
+ * Every game gets its own dealer, table and players, and a deck seeded with the tournament seed plus the game number,
+ * so a tournament can be repeated with other settings on the same decks.
+ */
+public class Tournament {
+
+    /**
+     * The results of the players of a strategy.
+     */
+    public static class StrategyResult {
+        /**
+         * The number of (player, game) pairs the strategy played, won (shared wins included, and nobody wins a game
+         * nobody scored in), and its totals.
+         */
+        public long playerGames;
+        public long wins;
+        public long points;
+        public long penalties;
+
+        public double winRate() {
+            return playerGames == 0 ? 0 : (double) wins / playerGames;
+        }
+
+        public double pointsPerGame() {
+            return playerGames == 0 ? 0 : (double) points / playerGames;
+        }
+
+        public double penaltiesPerGame() {
+            return playerGames == 0 ? 0 : (double) penalties / playerGames;
+        }
+    }
+
+    private final Map<ComputerStrategy, StrategyResult> results = new EnumMap<>(ComputerStrategy.class);
+    private long games;
+    private long points;
+    private long penalties;
+    private double durationMillis;
+
+    /**
+     * Adds the results of a finished game. The players with the highest score win it, unless nobody scored.
+     *
+     * @param game - the game.
+     */
+    public void add(GameHost.Game game) {
+        boolean[] winner = new boolean[game.players.length];
+        if (game.dealer.scoreboard().maxScore() > 0)
+            for (int player : game.dealer.scoreboard().leaders())
+                winner[player] = true;
+        for (Player player : game.players) {
+            ComputerStrategy strategy = ComputerStrategy.of(game.env.config.computerStrategies[player.id]);
+            StrategyResult result = results.computeIfAbsent(strategy, s -> new StrategyResult());
+            result.playerGames++;
+            if (winner[player.id])
+                result.wins++;
+            result.points += player.getScore();
+            result.penalties += player.getPenalties();
+            points += player.getScore();
+            penalties += player.getPenalties();
+        }
+        games++;
+        durationMillis += game.durationMillis();
+    }
+
+    /**
+     * @return - the results per strategy.
+     */
+    public Map<ComputerStrategy, StrategyResult> results() {
+        return new EnumMap<>(results);
+    }
+
+    /**
+     * Plays the games.
+     *
+     * @param host   - the host to play the games on.
+     * @param config - the configuration of every game.
+     * @param games  - the number of games.
+     * @param seed   - the seed of the first game's deck (the next games use the next seeds).
+     * @param window - the maximal number of games added to the host and not yet finished.
+     */
+    public void play(GameHost host, Config config, int games, long seed, int window) throws InterruptedException {
+        Deque<GameHost.Game> playing = new ArrayDeque<>();
+        for (int i = 0; i < games; i++) {
+            if (playing.size() == window)
+                finish(playing.removeFirst());
+            playing.addLast(host.addGame(config, seed + i));
+        }
+        while (!playing.isEmpty())
+            finish(playing.removeFirst());
+    }
+
+    private void finish(GameHost.Game game) throws InterruptedException {
+        game.await();
+        add(game);
+    }
+
+    /**
+     * Writes the summary as CSV: a line per strategy, then a line for all the players.
+     */
+    public void writeCsv(PrintWriter out) {
+        out.println("strategy,player_games,wins,win_rate,sets_per_game,penalties_per_game,games,avg_game_seconds");
+        for (Map.Entry<ComputerStrategy, StrategyResult> entry : results.entrySet()) {
+            StrategyResult result = entry.getValue();
+            out.printf(Locale.ROOT, "%s,%d,%d,%.4f,%.4f,%.4f,%d,%.3f%n", entry.getKey().name().toLowerCase(Locale.ROOT),
+                    result.playerGames, result.wins, result.winRate(), result.pointsPerGame(),
+                    result.penaltiesPerGame(), games, averageGameSeconds());
+        }
+        out.printf(Locale.ROOT, "all,,,,%.4f,%.4f,%d,%.3f%n", setsPerGame(), penaltiesPerGame(), games,
+                averageGameSeconds());
+    }
+
+    /**
+     * Writes the summary as a JSON object.
+     */
+    public void writeJson(PrintWriter out) {
+        out.printf(Locale.ROOT, "{\"games\": %d, \"sets_per_game\": %.4f, \"penalties_per_game\": %.4f, "
+                + "\"avg_game_seconds\": %.3f, \"strategies\": {", games, setsPerGame(), penaltiesPerGame(),
+                averageGameSeconds());
+        String separator = "";
+        for (Map.Entry<ComputerStrategy, StrategyResult> entry : results.entrySet()) {
+            StrategyResult result = entry.getValue();
+            out.printf(Locale.ROOT, "%s\"%s\": {\"player_games\": %d, \"wins\": %d, \"win_rate\": %.4f, "
+                            + "\"sets_per_game\": %.4f, \"penalties_per_game\": %.4f}", separator,
+                    entry.getKey().name().toLowerCase(Locale.ROOT), result.playerGames, result.wins,
+                    result.winRate(), result.pointsPerGame(), result.penaltiesPerGame());
+            separator = ", ";
+        }
+        out.println("}}");
+    }
+
+    /**
+     * @return - the average number of sets collected by all the players in a game.
+     */
+    public double setsPerGame() {
+        return games == 0 ? 0 : (double) points / games;
+    }
+
+    /**
+     * @return - the average number of penalties given to all the players in a game.
+     */
+    public double penaltiesPerGame() {
+        return games == 0 ? 0 : (double) penalties / games;
+    }
+
+    /**
+     * @return - the average duration of a game in seconds.
+     */
+    public double averageGameSeconds() {
+        return games == 0 ? 0 : durationMillis / games / 1000.0;
+    }
+
+    /**
+     * Plays a tournament of config.properties (with the human players replaced by computer players) on all the cores.
+     *
+     * @param args - the number of games, the summary file (.json for JSON, CSV otherwise), optionally the seed of
+     *             the first deck (default 0), and any number of Key=Value settings overriding config.properties.
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        Logger logger = Logger.getLogger("SetGameLogger");
+        logger.setLevel(Level.WARNING);
+        if (args.length < 2) {
+            System.err.println("usage: Tournament <games> <summary file> [seed] [Key=Value ...]");
+            return;
+        }
+        int games = Integer.parseInt(args[0]);
+        Path summary = Paths.get(args[1]);
+        long seed = 0;
+        Properties properties = Config.loadProperties("config.properties", logger);
+        properties.setProperty("Hints", "False");
+        for (int i = 2; i < args.length; i++) {
+            int equals = args[i].indexOf('=');
+            if (equals < 0)
+                seed = Long.parseLong(args[i]);
+            else
+                properties.setProperty(args[i].substring(0, equals).trim(), args[i].substring(equals + 1).trim());
+        }
+        int humans = Integer.parseInt(properties.getProperty("HumanPlayers", "0"));
+        int computers = Integer.parseInt(properties.getProperty("ComputerPlayers", "0"));
+        properties.setProperty("HumanPlayers", "0");
+        properties.setProperty("ComputerPlayers", Integer.toString(humans + computers));
+        Config config = new Config(logger, properties);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        GameHost host = new GameHost(logger, cores);
+        Tournament tournament = new Tournament();
+        long start = System.nanoTime();
+        tournament.play(host, config, games, seed, 2 * cores);
+        host.awaitAll();
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(summary))) {
+            if (summary.toString().endsWith(".json"))
+                tournament.writeJson(out);
+            else
+                tournament.writeCsv(out);
+        }
+        System.out.printf(Locale.ROOT, "%d games in %.1f s, %.2f sets and %.2f penalties per game, summary in %s%n",
+                games, (System.nanoTime() - start) / 1e9, tournament.setsPerGame(), tournament.penaltiesPerGame(),
+                summary);
+    }
+}
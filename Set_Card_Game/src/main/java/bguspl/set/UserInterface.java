@@ -17,6 +17,25 @@ public interface UserInterface {
      */
     void removeCard(int slot);
 
+    /**
+     * Draw the card images corresponding to the card ids in the specified slots, as one update.
+     * @param cards - the card ids.
+     * @param slots - the slot numbers (respectively).
+     */
+    default void placeCards(int[] cards, int[] slots) {
+        for (int i = 0; i < cards.length; i++)
+            placeCard(cards[i], slots[i]);
+    }
+
+    /**
+     * Draw empty card images in the specified slots, as one update.
+     * @param slots - the slot numbers.
+     */
+    default void removeCards(int[] slots) {
+        for (int slot : slots)
+            removeCard(slot);
+    }
+
     /**
      * Set the countdown time to the specified number of milliseconds.
      * @param millies - the milliseconds to be shown.
@@ -78,4 +97,12 @@ public interface UserInterface {
      * @param players - the players ids.
      */
     void announceWinner(int[] players);
+
+    /**
+     * Check whether changes of the board are still being animated on the screen.
+     * @return - true iff the screen does not show the current board yet.
+     */
+    default boolean isAnimating() {
+        return false;
+    }
 }
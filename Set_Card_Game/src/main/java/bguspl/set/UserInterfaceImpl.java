@@ -5,6 +5,7 @@ import java.awt.*;
 import java.io.FileNotFoundException;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,6 +28,13 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
     }
 
     public UserInterfaceImpl(Logger logger, Config config) {
+        this(logger, config, new StartupProfiler());
+    }
+
+    /**
+     * @param startup - the profiler to report the loading of the card images to.
+     */
+    public UserInterfaceImpl(Logger logger, Config config, StartupProfiler startup) {
 
         this.logger = logger;
         this.config = config;
@@ -61,6 +69,15 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
         setTitle("Set Card Game");
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+        // decode the card images in the background, a card placed before its image was loaded loads it on demand
+        Thread loader = new Thread(() -> {
+            for (int card = 0; card < config.deckSize; card++)
+                gamePanel.cardImage(card);
+            startup.milestone("card images loaded");
+        }, "card-images");
+        loader.setDaemon(true);
+        loader.start();
     }
 
     private class TimerPanel extends JPanel {
@@ -97,7 +114,7 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
     private class GamePanel extends JLayeredPane {
 
         private final Image emptyCard;
-        private final Image[] deck;
+        private final AtomicReferenceArray<Image> deck;
         private final Image[][] grid;
         private final boolean[][][] playerTokens;
         private final JLabel[][] tokenText;
@@ -116,10 +133,8 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
             // init deck and load all pictures from png files
             assert config.featureSize < 10; // otherwise there will be naming conflicts
 
-            // load the image resources
-            deck = new Image[config.deckSize];
-            for (int i = 0; i < config.deckSize; ++i)
-                deck[i] = loadImageResource("cards/" + intInBaseToPaddedString(i, config.featureCount, config.featureSize) + ".png");
+            // the card images are loaded lazily (see cardImage)
+            deck = new AtomicReferenceArray<>(config.deckSize);
             emptyCard = loadImageResource("cards/empty_card.png");
 
             grid = new Image[config.rows][config.columns];
@@ -142,24 +157,55 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
             }
         }
 
+        /**
+         * @return - the image of the card (loaded on first use).
+         */
+        private Image cardImage(int card) {
+            Image image = deck.get(card);
+            if (image == null) {
+                image = loadImageResource("cards/" + intInBaseToPaddedString(card, config.featureCount, config.featureSize) + ".png");
+                if (!deck.compareAndSet(card, null, image))
+                    image = deck.get(card);
+            }
+            return image;
+        }
+
         private void placeCard(int slot, int card) {
-            logger.log(Level.SEVERE, "placing card " + card + " in slot " + slot);
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            grid[row][column] = deck[card];
+            setCard(slot, card);
             validate();
             repaint();
         }
 
         private void removeCard(int slot) {
-            logger.log(Level.SEVERE, "removing card from slot " + slot);
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            grid[row][column] = emptyCard;
+            setCard(slot, -1);
             validate();
             repaint();
         }
 
+        private void placeCards(int[] cards, int[] slots) {
+            for (int i = 0; i < cards.length; i++)
+                setCard(slots[i], cards[i]);
+            validate();
+            repaint();
+        }
+
+        private void removeCards(int[] slots) {
+            for (int slot : slots)
+                setCard(slot, -1);
+            validate();
+            repaint();
+        }
+
+        private void setCard(int slot, int card) {
+            if (card < 0)
+                logger.log(Level.SEVERE, "removing card from slot " + slot);
+            else
+                logger.log(Level.SEVERE, "placing card " + card + " in slot " + slot);
+            int row = slot / config.columns;
+            int column = slot % config.columns;
+            grid[row][column] = card < 0 ? emptyCard : cardImage(card);
+        }
+
         private void placeToken(int player, int slot) {
             logger.log(Level.SEVERE, "player " + player + " placing token on slot " + slot);
             int row = slot / config.columns;
@@ -291,6 +337,16 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
         gamePanel.removeCard(slot);
     }
 
+    @Override
+    public void placeCards(int[] cards, int[] slots) {
+        gamePanel.placeCards(cards, slots);
+    }
+
+    @Override
+    public void removeCards(int[] slots) {
+        gamePanel.removeCards(slots);
+    }
+
     public void setCountdown(long millies, boolean warn) {
         timerPanel.setCountdown(millies, warn);
     }
@@ -1,5 +1,6 @@
 package bguspl.set;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,8 +32,34 @@ public interface Util {
     /**
      * Finds and returns up to count sets in the given collection of cards.
      * @param deck  - a collection of cards (may not include null objects).
-     * @param count - the maximum number of sets to find.
+     * @param count - the maximum number of sets to find (a count below 1 is treated as 1).
      * @return      - a list of up to count integer arrays, each one contains the card ids of a legal set.
      */
     List<int[]> findSets(List<Integer> deck, int count);
+
+    /**
+     * Finds and returns up to count sets in the given collection of cards, splitting the search between threads.
+     * Meant for finding many sets in large collections (see findSets).
+     * @param deck  - a collection of cards (may not include null objects).
+     * @param count - the maximum number of sets to find (a count below 1 is treated as 1).
+     * @return      - a list of up to count integer arrays, each one contains the card ids of a legal set.
+     */
+    default List<int[]> findSetsParallel(List<Integer> deck, int count) {
+        return findSets(deck, count);
+    }
+
+    /**
+     * Counts the sets among the first n cards of an array. Meant for counting sets in many small collections (e.g.
+     * boards), implementations should not allocate.
+     * @param cards - the cards.
+     * @param n     - the number of cards to consider.
+     * @param limit - the maximum number of sets to count.
+     * @return      - the number of sets found (at most limit).
+     */
+    default int countSets(int[] cards, int n, int limit) {
+        List<Integer> deck = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            deck.add(cards[i]);
+        return findSets(deck, limit).size();
+    }
 }
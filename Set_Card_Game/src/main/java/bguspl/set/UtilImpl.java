@@ -1,7 +1,6 @@
 package bguspl.set;
 
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.IntStream;
 
@@ -12,8 +11,33 @@ public class UtilImpl implements Util {
 
     private final Config config;
 
+    /**
+     * Finds sets of 3 cards by looking up the card that completes every pair (null for other set sizes).
+     */
+    private final PairSetFinder pairSetFinder;
+
+    /**
+     * Finds sets of any size with a search that abandons combinations that can no longer become a set.
+     */
+    private final PrunedSetFinder prunedSetFinder;
+
+    /**
+     * Runs the set finder of the feature size on the common fork/join pool.
+     */
+    private final ParallelSetFinder<?> parallelSetFinder;
+
+    /**
+     * The card-presence bitmap of every thread counting sets with the pair set finder.
+     */
+    private final ThreadLocal<long[]> presence;
+
     public UtilImpl(Config config) {
         this.config = config;
+        this.pairSetFinder = config.featureSize == 3 ? new PairSetFinder(config) : null;
+        this.prunedSetFinder = new PrunedSetFinder(config);
+        this.parallelSetFinder = pairSetFinder != null
+                ? new ParallelSetFinder<>(pairSetFinder) : new ParallelSetFinder<>(prunedSetFinder);
+        this.presence = pairSetFinder != null ? ThreadLocal.withInitial(pairSetFinder::newPresenceBitmap) : null;
     }
 
     private void cardToFeatures(int card, int[] features) {
@@ -65,27 +89,22 @@ public class UtilImpl implements Util {
 
     @Override
     public List<int[]> findSets(List<Integer> deck, int count) {
-        LinkedList<int[]> sets = new LinkedList<>();
-        int n = deck.size();
-        int r = config.featureSize;
-        int[] combination = new int[r];
-
-        for (int i = 0; i < r; ++i)
-            combination[i] = i;
-
-        while (combination[r - 1] < deck.size()) {
-            int[] cards = Arrays.stream(combination).map(deck::get).sorted().toArray();
-            if (testSet(cards)) {
-                sets.add(cards);
-                if (sets.size() >= count) return sets;
-            }
-
-            // generate next combination in lexicographic order
-            int t = r - 1;
-            while (t != 0 && combination[t] == n - r + t) --t;
-            combination[t]++;
-            for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
-        }
-        return sets;
+        // as with the original search over every combination, asking for no sets still finds one
+        count = Math.max(1, count);
+        if (pairSetFinder != null)
+            return pairSetFinder.findSets(deck, count);
+        return prunedSetFinder.findSets(deck, count);
+    }
+
+    @Override
+    public List<int[]> findSetsParallel(List<Integer> deck, int count) {
+        return parallelSetFinder.findSets(deck, Math.max(1, count));
+    }
+
+    @Override
+    public int countSets(int[] cards, int n, int limit) {
+        if (pairSetFinder != null)
+            return pairSetFinder.countSets(cards, n, presence.get(), limit);
+        return Util.super.countSets(cards, n, limit);
     }
 }
@@ -0,0 +1,165 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded lock-free ring of slot actions, handed from the input threads of a player to the player thread.
+ * <p>
+ * There is a single consumer (the player thread). A producer reserves a position with one compare-and-set, so the
+ * keyboard and a remote connection can both feed the same player. When the ring is full the action is dropped.
+ * A consumer that finds the ring empty parks until a producer unparks it.
+ */
+public class ActionRing {
+
+    /**
+     * Marks a position that holds no action (actions are slots, never negative).
+     */
+    private static final int EMPTY = -1;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicIntegerArray buffer;
+
+    /**
+     * The position of the next action to take (written by the consumer only) and to put, kept in cursors[head] and
+     * cursors[tail].
+     */
+    private final AtomicLongArray cursors;
+    private final int head;
+    private final int tail;
+
+    /**
+     * The consumer thread, set while it is parked (or about to park).
+     */
+    private volatile Thread waiter;
+
+    /**
+     * True iff the consumer should return from take() even if there is no action (see wakeUp()).
+     */
+    private volatile boolean wakeUp;
+
+    /**
+     * @param capacity - the maximum number of actions in the ring.
+     */
+    public ActionRing(int capacity) {
+        this(capacity, new AtomicLongArray(2), 0, 1);
+    }
+
+    /**
+     * @param capacity - the maximum number of actions in the ring.
+     * @param cursors  - the array the positions of the ring are kept in (e.g. a PlayerRegistry's).
+     * @param head     - the index of the position of the next action to take.
+     * @param tail     - the index of the position of the next action to put.
+     */
+    ActionRing(int capacity, AtomicLongArray cursors, int head, int tail) {
+        this.cursors = cursors;
+        this.head = head;
+        this.tail = tail;
+        this.capacity = capacity;
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.buffer = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++)
+            buffer.set(i, EMPTY);
+    }
+
+    /**
+     * Puts an action in the ring, unless it is full.
+     *
+     * @param slot - the action.
+     * @return - true iff the action was put.
+     */
+    public boolean offer(int slot) {
+        long position;
+        do {
+            position = cursors.get(tail);
+            if (position - cursors.get(head) >= capacity)
+                return false;
+        } while (!cursors.compareAndSet(tail, position, position + 1));
+        buffer.set((int) position & mask, slot);
+        Thread waiter = this.waiter;
+        if (waiter != null)
+            LockSupport.unpark(waiter);
+        return true;
+    }
+
+    /**
+     * Takes the next action, if there is one (consumer only).
+     *
+     * @return - the action, or -1 if the ring is empty.
+     */
+    public int poll() {
+        long position = cursors.get(head);
+        int index = (int) position & mask;
+        int slot = buffer.get(index);
+        // a reserved position may not be written yet
+        if (slot == EMPTY)
+            return EMPTY;
+        buffer.lazySet(index, EMPTY);
+        cursors.set(head, position + 1);
+        return slot;
+    }
+
+    /**
+     * Takes the next action, parking until there is one or until wakeUp() is called (consumer only).
+     *
+     * @return - the action, or -1 if woken up without one.
+     * @throws InterruptedException - if the consumer thread is interrupted while waiting.
+     */
+    public int take() throws InterruptedException {
+        while (true) {
+            int slot = poll();
+            if (slot != EMPTY)
+                return slot;
+            waiter = Thread.currentThread();
+            slot = poll();
+            if (slot == EMPTY && !wakeUp)
+                LockSupport.park(this);
+            waiter = null;
+            if (slot != EMPTY)
+                return slot;
+            if (wakeUp) {
+                wakeUp = false;
+                return EMPTY;
+            }
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Makes the consumer return from take() (now, or from its next call if it is not waiting), e.g. to see that it
+     * should stop.
+     */
+    public void wakeUp() {
+        wakeUp = true;
+        Thread waiter = this.waiter;
+        if (waiter != null)
+            LockSupport.unpark(waiter);
+    }
+
+    /**
+     * Drops all the actions in the ring (consumer only).
+     */
+    public void clear() {
+        while (poll() != EMPTY) {
+            // drop
+        }
+    }
+
+    /**
+     * @return - the number of actions in the ring.
+     */
+    public int size() {
+        return (int) Math.min(capacity, Math.max(0, cursors.get(tail) - cursors.get(head)));
+    }
+
+    /**
+     * @return - the maximum number of actions in the ring.
+     */
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,108 @@
+package bguspl.set.ex;
+
+import java.util.Arrays;
+
+/**
+ * An immutable copy of the board: the card in every slot and every player's tokens, at a table version.
+ * The table publishes a new snapshot on every change (copying only what changed), so a snapshot can be read by any
+ * thread without holding the table lock.
+ */
+public final class BoardSnapshot {
+
+    /**
+     * The table version: incremented on every change of a card or a token.
+     */
+    public final long version;
+
+    /**
+     * The layout version: incremented on every change of a card.
+     */
+    public final long layoutVersion;
+
+    /**
+     * The card in every slot (-1 if none).
+     */
+    private final int[] slotToCard;
+
+    /**
+     * tokens[player] is a bitset of the slots the player has tokens on (64 slots per word).
+     */
+    private final long[][] tokens;
+
+    BoardSnapshot(long version, long layoutVersion, int[] slotToCard, long[][] tokens) {
+        this.version = version;
+        this.layoutVersion = layoutVersion;
+        this.slotToCard = slotToCard;
+        this.tokens = tokens;
+    }
+
+    /**
+     * @return - an empty board.
+     */
+    static BoardSnapshot empty(int players, int tableSize) {
+        int[] slotToCard = new int[tableSize];
+        Arrays.fill(slotToCard, -1);
+        long[][] tokens = new long[players][(tableSize + 63) / 64];
+        return new BoardSnapshot(0, 0, slotToCard, tokens);
+    }
+
+    /**
+     * @return - a snapshot of the next version with a card placed (card >= 0) or removed (card == -1).
+     */
+    BoardSnapshot withCard(int slot, int card) {
+        int[] slotToCard = this.slotToCard.clone();
+        slotToCard[slot] = card;
+        return new BoardSnapshot(version + 1, layoutVersion + 1, slotToCard, tokens);
+    }
+
+    /**
+     * @return - a snapshot of the next version with a player's token placed or removed.
+     */
+    BoardSnapshot withToken(int player, int slot, boolean placed) {
+        long[][] tokens = this.tokens.clone();
+        tokens[player] = tokens[player].clone();
+        if (placed)
+            tokens[player][slot >>> 6] |= 1L << slot;
+        else
+            tokens[player][slot >>> 6] &= ~(1L << slot);
+        return new BoardSnapshot(version + 1, layoutVersion, slotToCard, tokens);
+    }
+
+    /**
+     * @return - the number of slots.
+     */
+    public int tableSize() {
+        return slotToCard.length;
+    }
+
+    /**
+     * @return - the card in the slot (-1 if none).
+     */
+    public int card(int slot) {
+        return slotToCard[slot];
+    }
+
+    /**
+     * @return - the card in every slot (-1 if none), a copy.
+     */
+    public int[] cards() {
+        return slotToCard.clone();
+    }
+
+    /**
+     * @return - true iff the player has a token on the slot.
+     */
+    public boolean hasToken(int player, int slot) {
+        return (tokens[player][slot >>> 6] & 1L << slot) != 0;
+    }
+
+    /**
+     * @return - the number of tokens the player has on the board.
+     */
+    public int tokenCount(int player) {
+        int count = 0;
+        for (long word : tokens[player])
+            count += Long.bitCount(word);
+        return count;
+    }
+}
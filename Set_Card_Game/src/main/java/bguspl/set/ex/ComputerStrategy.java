@@ -0,0 +1,74 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How a computer player chooses the next slot to press, given the board.
+ */
+public enum ComputerStrategy {
+
+    /**
+     * Presses a random slot.
+     */
+    RANDOM {
+        @Override
+        int nextSlot(Env env, BoardSnapshot board, int player) {
+            return randomSlot(board);
+        }
+    },
+
+    /**
+     * Looks for a set on the board and presses its slots: first removes its tokens from the other slots, then places
+     * tokens on the set (and waits once they are all placed). If there is no set on the board, removes its tokens
+     * and waits for the cards to change.
+     */
+    SET_SEEKER {
+        @Override
+        int nextSlot(Env env, BoardSnapshot board, int player) {
+            List<Integer> cards = new ArrayList<>(board.tableSize());
+            for (int slot = 0; slot < board.tableSize(); slot++)
+                if (board.card(slot) >= 0)
+                    cards.add(board.card(slot));
+            List<int[]> sets = env.util.findSets(cards, 1);
+
+            boolean[] target = new boolean[board.tableSize()];
+            for (int card : sets.isEmpty() ? new int[0] : sets.get(0))
+                for (int slot = 0; slot < board.tableSize(); slot++)
+                    if (board.card(slot) == card)
+                        target[slot] = true;
+            for (int slot = 0; slot < target.length; slot++)
+                if (!target[slot] && board.hasToken(player, slot))
+                    return slot;
+            for (int slot = 0; slot < target.length; slot++)
+                if (target[slot] && !board.hasToken(player, slot))
+                    return slot;
+            return -1;
+        }
+    };
+
+    /**
+     * @param env    - the environment object.
+     * @param board  - the board.
+     * @param player - the id of the player.
+     * @return - the slot to press (-1 to press nothing this time).
+     */
+    abstract int nextSlot(Env env, BoardSnapshot board, int player);
+
+    private static int randomSlot(BoardSnapshot board) {
+        return ThreadLocalRandom.current().nextInt(0, board.tableSize());
+    }
+
+    /**
+     * @param name - the name of the strategy (case insensitive, '-' may be used instead of '_').
+     * @return - the strategy.
+     * @throws IllegalArgumentException - if there is no strategy with the name.
+     */
+    public static ComputerStrategy of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
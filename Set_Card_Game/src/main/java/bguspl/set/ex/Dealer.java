@@ -1,12 +1,29 @@
 package bguspl.set.ex;
 
+import bguspl.set.ClaimLatency;
 import bguspl.set.Env;
+import bguspl.set.GameJournal;
+import bguspl.set.PlayerStatsStore;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -27,13 +44,93 @@ public class Dealer implements Runnable {
     private final Table table;
     private final Player[] players;
 
+    /**
+     * The players' scores, ordered as the points are awarded (written by the dealer thread only).
+     */
+    private final Scoreboard scoreboard;
+
+    /**
+     * The state of the players (the players created with this dealer are views of it).
+     */
+    private final PlayerRegistry registry;
+
     /**
      * The list of card ids that are left in the dealer's deck.
      */
     private final List<Integer> deck;
 
+    /**
+     * The seed of the random generator the deck is shuffled with (recorded in the journal for replays).
+     */
+    private long seed;
+    private final Random random;
+
+    /**
+     * The seed of the next shuffle. Every shuffle reseeds the random generator from a fixed sequence of seeds starting
+     * at the game's seed, so the shuffles depend on the seed only (and not on what else used the generator, or on
+     * snapshots taken in between).
+     */
+    private long shuffleSeed;
+
     private final ConcurrentLinkedQueue<Integer> setClaims;
 
+    /**
+     * The workers checking the claims against a copy of the board (null if the dealer checks them itself), and the
+     * claims they checked, waiting for the dealer to commit them in the order they arrived.
+     */
+    private final ExecutorService validators;
+    private final PriorityBlockingQueue<ValidatedClaim> validatedClaims;
+
+    /**
+     * The arrival sequence number of the next claim sent to the validators, and of the next claim to commit (accessed
+     * by the dealer thread only). A claim is committed only after all the claims that arrived before it.
+     */
+    private final AtomicLong claimSequence = new AtomicLong();
+    private long nextCommit;
+
+    /**
+     * The number of claims the validators checked (guarded by this).
+     */
+    private long validations;
+
+    /**
+     * A claim checked by a validator against the board at a layout version.
+     */
+    private static final class ValidatedClaim {
+        final long sequence;
+        final int player;
+        final long layoutVersion;
+        final int[] slots;
+        final int[] cards;
+
+        /**
+         * True iff the player had a token on featureSize cards, and iff these cards form a legal set.
+         */
+        final boolean complete;
+        final boolean legal;
+
+        ValidatedClaim(long sequence, int player, long layoutVersion, int[] slots, int[] cards, boolean complete,
+                       boolean legal) {
+            this.sequence = sequence;
+            this.player = player;
+            this.layoutVersion = layoutVersion;
+            this.slots = slots;
+            this.cards = cards;
+            this.complete = complete;
+            this.legal = legal;
+        }
+    }
+
+    /**
+     * The System.nanoTime() at which each player made its last claim (for latency tracing).
+     */
+    private final long[] claimedAt;
+
+    /**
+     * The players' claims and verdicts since the end of the last round, for the lifetime statistics.
+     */
+    private final PlayerStatsStore.Tally tally;
+
     /**
      * True iff game should be terminated due to an external event.
      */
@@ -45,27 +142,147 @@ public class Dealer implements Runnable {
     private long reshuffleTime = Long.MAX_VALUE;
     private long startTime = Long.MAX_VALUE;
 
+    /**
+     * Shows the countdown (or the elapsed time) on the ui, off the dealer thread.
+     */
+    private final TimerDisplay timerDisplay;
+
+    /**
+     * The thread starting the players' threads (null if it was not started).
+     */
+    private volatile Thread playerStarter;
+
+    /**
+     * The thread running the dealer (null if it was not started).
+     */
+    private volatile Thread dealerThread;
+
+    /**
+     * A snapshot requested from other threads, taken by the dealer thread between two steps. All the callers asking
+     * before it is served wait for the same request (written under this).
+     */
+    private volatile CompletableFuture<GameSnapshot> snapshotRequest;
+
+    /**
+     * True iff the game was restored in the middle of a round (the table is already dealt).
+     */
+    private boolean resumeRound;
+
 
     public Dealer(Env env, Table table, Player[] players) {
+        this(env, table, players, ThreadLocalRandom.current().nextLong());
+    }
+
+    public Dealer(Env env, Table table, Player[] players, long seed) {
         this.env = env;
         this.table = table;
         this.players = players;
+        this.registry = new PlayerRegistry(players.length);
+        this.scoreboard = new Scoreboard(registry);
+        this.timerDisplay = new TimerDisplay(env.ui, env.config.turnTimeoutWarningMillis);
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.shuffleSeed = seed;
         deck = IntStream.range(0, env.config.deckSize).boxed().collect(Collectors.toList());
         setClaims = new ConcurrentLinkedQueue<>();
+        claimedAt = new long[players.length];
+        tally = env.stats.tally(Arrays.copyOf(env.config.playerNames, players.length));
+        validatedClaims = new PriorityBlockingQueue<>(Math.max(1, players.length),
+                (first, second) -> Long.compare(first.sequence, second.sequence));
+        if (env.config.claimValidators > 0) {
+            AtomicInteger validatorIds = new AtomicInteger();
+            validators = Executors.newFixedThreadPool(env.config.claimValidators, runnable -> {
+                Thread thread = new Thread(runnable, "validator-" + validatorIds.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            validators = null;
+        }
     }
 
     public void claimSet(Player player) {
-        this.setClaims.add(player.id);
+        this.claimedAt[player.id] = System.nanoTime();
+        env.journal.record(GameJournal.CLAIM, -1, player.id, 0);
+        if (validators == null) {
+            this.setClaims.add(player.id);
+            return;
+        }
+        long sequence = claimSequence.getAndIncrement();
+        BoardSnapshot board = this.table.snapshot();
+        try {
+            validators.execute(() -> validateClaim(sequence, player.id, board));
+        } catch (RejectedExecutionException ignored) {
+            // the game is over
+            synchronized (this) {
+                this.validations++;
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Checks a claim against a copy of the board (on a validator thread) and hands it to the dealer.
+     */
+    private void validateClaim(long sequence, int player, BoardSnapshot board) {
+        int featureSize = env.config.featureSize;
+        int count = board.tokenCount(player);
+        int[] slots = new int[Math.min(count, featureSize)];
+        int[] cards = new int[slots.length];
+        for (int slot = 0, i = 0; slot < board.tableSize() && i < slots.length; slot++) {
+            if (board.hasToken(player, slot) && board.card(slot) != -1) {
+                slots[i] = slot;
+                cards[i++] = board.card(slot);
+            }
+        }
+        boolean complete = count == featureSize;
+        this.validatedClaims.add(new ValidatedClaim(sequence, player, board.layoutVersion, slots, cards, complete,
+                complete && this.env.util.testSet(cards)));
+        synchronized (this) {
+            this.validations++;
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until the validators checked every claim sent to them.
+     */
+    void awaitValidations() throws InterruptedException {
+        synchronized (this) {
+            while (this.validations < this.claimSequence.get())
+                this.wait();
+        }
+    }
+
+    /**
+     * Stops the validators (the claims not checked yet are dropped).
+     */
+    void shutdownValidators() {
+        if (validators != null) {
+            validators.shutdownNow();
+        }
     }
 
     public boolean isTerminate() {
         return this.terminate;
     }
 
+    /**
+     * @return - the number of cards left in the deck.
+     */
+    int deckSize() {
+        return this.deck.size();
+    }
+
     private void startPlayers() {
-        for (Player player : players) {
-            new Thread(player).start();
-        }
+        // the players (and their computer threads) are started while the dealer deals the first cards
+        playerStarter = new Thread(() -> {
+            for (Player player : players) {
+                player.start();
+            }
+            env.startup.milestone("players started");
+        }, "player-starter");
+        playerStarter.start();
     }
 
     /**
@@ -74,34 +291,62 @@ public class Dealer implements Runnable {
     @Override
     public void run() {
         env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " starting.");
+        dealerThread = Thread.currentThread();
+        env.journal.record(GameJournal.GAME_START, env.config.tableSize, players.length, env.config.deckSize);
+        env.journal.record(GameJournal.SEED, -1, -1, seed);
+        timerDisplay.start();
         startPlayers();
 
         while (!shouldFinish()) {
-            do {
-                Collections.shuffle(deck);
-
-            } while (this.env.util.findSets(deck, 1).size() <= 0);
-
-            placeCardsOnTable();
-            timerLoop();
+            boolean resume = resumeRound;
+            resumeRound = false;
+            if (!resume) {
+                shuffleDeck();
+                placeCardsOnTable();
+                env.startup.milestone("first deal");
+            }
+            timerLoop(!resume);
             updateTimerDisplay(false);
             removeAllCardsFromTable();
+            env.stats.commit(tally);
         }
+        timerDisplay.stop();
         announceWinners();
+        tally.gameOver();
+        env.stats.commit(tally);
+        env.journal.record(GameJournal.GAME_END, -1, -1, 0);
+        serveSnapshotRequest();
+        shutdownValidators();
+        env.logger.log(Level.INFO, env.latency.summary());
+        env.logger.log(Level.INFO, env.startup.summary());
         env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " terminated.");
     }
 
 
+    /**
+     * Shuffles the deck until it contains a legal set.
+     */
+    void shuffleDeck() {
+        random.setSeed(shuffleSeed);
+        shuffleSeed = shuffleSeed * 6364136223846793005L + 1442695040888963407L;
+        do {
+            Collections.shuffle(deck, random);
+        } while (this.env.util.findSets(deck, 1).size() <= 0);
+    }
+
     /**
      * The inner loop of the dealer thread that runs as long as the countdown did not time out.
+     *
+     * @param reset - true iff the countdown should start over.
      */
-    private void timerLoop() {
-        updateTimerDisplay(true);
+    private void timerLoop(boolean reset) {
+        updateTimerDisplay(reset);
         while (!terminate && System.currentTimeMillis() < reshuffleTime) {
             sleepUntilWokenOrTimeout();
-            updateTimerDisplay(false);
             removeCardsFromTable(); //
             placeCardsOnTable(); //
+            updateTimerDisplay(false);
+            serveSnapshotRequest();
             if (this.env.config.turnTimeoutMillis <= 0) {
                 terminate = shouldFinish() || noMoreMovesOnTable();
             } else {
@@ -115,6 +360,15 @@ public class Dealer implements Runnable {
      */
     public void terminate() {
         terminate = true;
+        // every player thread is started before the players are terminated
+        Thread starter = playerStarter;
+        while (starter != null && starter.isAlive())
+            try {
+                starter.join();
+            } catch (InterruptedException ignored) {
+            }
+        // flag all the players at once, so none of them waits for the threads of the others to be joined
+        registry.terminateAll();
         for (int i = players.length - 1; i >= 0; i--) {
             players[i].terminate();
         }
@@ -125,7 +379,7 @@ public class Dealer implements Runnable {
      *
      * @return true iff the game should be finished.
      */
-    private boolean shouldFinish() {
+    boolean shouldFinish() {
         return terminate || env.util.findSets(deck, 1).size() == 0;
     }
 
@@ -142,7 +396,8 @@ public class Dealer implements Runnable {
         List<Integer> playerCards = new ArrayList<>(this.table.getPlayerCards(player));
 
         // case card was remove
-        if (playerCards.size() < 3) {
+        if (playerCards.size() < env.config.featureSize) {
+            verdict(player, GameJournal.VERDICT_VOID);
             synchronized (this.players[player]){
                 this.players[player].notify();
             }
@@ -155,7 +410,8 @@ public class Dealer implements Runnable {
             for (int card : setSearch.get(0)) {
                 this.table.removeCard(this.table.cardToSlot[card]);
             }
-            this.players[player].point();
+            verdict(player, GameJournal.VERDICT_POINT);
+            point(player);
             this.startTime = System.currentTimeMillis();
 
         } else {
@@ -164,6 +420,7 @@ public class Dealer implements Runnable {
                 int slot = this.table.cardToSlot[card];
                 this.table.removeToken(player, slot);
             }
+            verdict(player, GameJournal.VERDICT_PENALTY);
             this.players[player].penalty();
             //
         }
@@ -173,36 +430,228 @@ public class Dealer implements Runnable {
     /**
      * Checks cards should be removed from the table and removes them.
      */
-    private void removeCardsFromTable() {
+    void removeCardsFromTable() {
+        if (validators != null) {
+            commitValidatedClaims();
+            return;
+        }
+        if (env.config.batchClaims) {
+            removeCardsFromTableBatch();
+            return;
+        }
         synchronized (this.table) {
             while (this.setClaims.size() > 0) {
                 Integer player = this.setClaims.poll();
-                updateTimerDisplay(false);
+                long verdictStart = System.nanoTime();
+                env.latency.record(ClaimLatency.Stage.CLAIM_QUEUE, verdictStart - claimedAt[player]);
                 removeCardsFromTableForPlayer(player);
+                env.latency.recordSince(ClaimLatency.Stage.VERDICT, verdictStart);
             }
         }
     }
 
+    /**
+     * Commits the claims checked by the validators, in the order they arrived: a claim checked before an earlier one is
+     * held back until the earlier one is checked and committed. A claim checked at the current layout version is
+     * committed as is; otherwise it still stands if its cards are still in their slots with the player's tokens (the
+     * cards are the same, so the check is the same), and it is void if they are not.
+     */
+    private void commitValidatedClaims() {
+        table.exclusively(() -> {
+            for (ValidatedClaim claim = nextValidatedClaim(); claim != null; claim = nextValidatedClaim()) {
+                long verdictStart = System.nanoTime();
+                env.latency.record(ClaimLatency.Stage.CLAIM_QUEUE, verdictStart - claimedAt[claim.player]);
+                boolean current = claim.complete
+                        && (claim.layoutVersion == this.table.layoutVersion() || isOnTable(claim));
+                if (!current) {
+                    verdict(claim.player, GameJournal.VERDICT_VOID);
+                    synchronized (this.players[claim.player]) {
+                        this.players[claim.player].notify();
+                    }
+                } else if (claim.legal) {
+                    for (int slot : claim.slots) {
+                        this.table.removeCard(slot);
+                    }
+                    verdict(claim.player, GameJournal.VERDICT_POINT);
+                    point(claim.player);
+                    this.startTime = System.currentTimeMillis();
+                } else {
+                    for (int slot : claim.slots) {
+                        this.table.removeToken(claim.player, slot);
+                    }
+                    verdict(claim.player, GameJournal.VERDICT_PENALTY);
+                    this.players[claim.player].penalty();
+                }
+                env.latency.recordSince(ClaimLatency.Stage.VERDICT, verdictStart);
+            }
+        });
+    }
 
     /**
-     * Check if any cards can be removed from the deck and placed on the table.
+     * @return - the checked claim to commit next, or null if it is not checked yet.
      */
-    private void placeCardsOnTable() {
-        for (int i = 0; i < this.table.slotToCard.length; i++) {
+    private ValidatedClaim nextValidatedClaim() {
+        ValidatedClaim claim = this.validatedClaims.peek();
+        if (claim == null || claim.sequence != this.nextCommit)
+            return null;
+        this.nextCommit++;
+        return this.validatedClaims.poll();
+    }
+
+    /**
+     * @return - true iff the cards of a claim are still in their slots, with the player's tokens on them.
+     */
+    private boolean isOnTable(ValidatedClaim claim) {
+        List<Integer> playerCards = this.table.getPlayerCards(claim.player);
+        for (int i = 0; i < claim.slots.length; i++) {
+            Integer card = this.table.slotToCard[claim.slots[i]];
+            if (card == null || card != claim.cards[i] || !playerCards.contains(card)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-            // case deck is empty
-            if (this.deck.size() == 0) {
-                return;
+    /**
+     * Checks all the pending claims together. The claims' cards are copied from the current board and validated in
+     * parallel without holding the table. Then, in one short critical section of the table (so no key press is applied
+     * in the middle of a batch), a claim whose cards changed meanwhile is checked again, conflicts between claims
+     * sharing cards are resolved by arrival order (the same verdicts as checking the claims one by one), and all the
+     * sets are removed and their slots refilled. The verdicts are recorded before the changes of the table, each
+     * flagged if more verdicts of the batch follow, so GameReplay replays the batch as one unit.
+     */
+    private void removeCardsFromTableBatch() {
+        List<Integer> claims = new ArrayList<>();
+        for (Integer player = this.setClaims.poll(); player != null; player = this.setClaims.poll()) {
+            claims.add(player);
+        }
+        if (claims.isEmpty()) {
+            return;
+        }
+        long verdictStart = System.nanoTime();
+        int size = claims.size();
+        BoardSnapshot board = this.table.snapshot();
+        List<Set<Integer>> claimCards = new ArrayList<>(size);
+        for (int player : claims) {
+            env.latency.record(ClaimLatency.Stage.CLAIM_QUEUE, verdictStart - claimedAt[player]);
+            Set<Integer> cards = new HashSet<>();
+            for (int slot = 0; slot < board.tableSize(); slot++) {
+                if (board.hasToken(player, slot) && board.card(slot) != -1) {
+                    cards.add(board.card(slot));
+                }
             }
+            claimCards.add(cards);
+        }
+        boolean[] legal = new boolean[size];
+        IntStream validations = IntStream.range(0, size);
+        (size > 1 ? validations.parallel() : validations).forEach(i -> legal[i] = isLegal(claimCards.get(i)));
+
+        long[] verdicts = new long[size];
+        this.table.exclusively(() -> commitBatch(claims, claimCards, legal, verdicts));
 
+        for (int i = 0; i < claims.size(); i++) {
+            Player player = this.players[claims.get(i)];
+            if (verdicts[i] == GameJournal.VERDICT_POINT) {
+                point(claims.get(i));
+                this.startTime = System.currentTimeMillis();
+            } else if (verdicts[i] == GameJournal.VERDICT_PENALTY) {
+                player.penalty();
+            } else {
+                synchronized (player) {
+                    player.notify();
+                }
+            }
+            env.latency.recordSince(ClaimLatency.Stage.VERDICT, verdictStart);
+        }
+    }
+
+    /**
+     * @return - true iff the cards of a claim are enough for a set, and contain one.
+     */
+    private boolean isLegal(Set<Integer> cards) {
+        return cards.size() >= env.config.featureSize
+                && this.env.util.findSets(new ArrayList<>(cards), 1).size() > 0;
+    }
+
+    /**
+     * Gives the verdicts of a batch of claims validated on a copy of the board, and changes the table accordingly
+     * (the table lock is held).
+     *
+     * @param claims     - the players who claimed, in arrival order.
+     * @param claimCards - the cards every claim was validated with (replaced if they changed since).
+     * @param legal      - the validation of every claim (updated if its cards changed since).
+     * @param verdicts   - filled with the verdict of every claim.
+     */
+    private void commitBatch(List<Integer> claims, List<Set<Integer>> claimCards, boolean[] legal, long[] verdicts) {
+        int size = claims.size();
+        // a key press may have changed a claim's cards since the copy: such a claim is checked again
+        for (int i = 0; i < size; i++) {
+            Set<Integer> cards = new HashSet<>(this.table.getPlayerCards(claims.get(i)));
+            if (!cards.equals(claimCards.get(i))) {
+                claimCards.set(i, cards);
+                legal[i] = isLegal(cards);
+            }
+        }
+
+        // the verdicts in arrival order: a claim on a card taken by an earlier set is void
+        Set<Integer> taken = new HashSet<>();
+        List<Integer> removedSlots = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Set<Integer> cards = claimCards.get(i);
+            if (cards.size() < env.config.featureSize || cards.stream().anyMatch(taken::contains)) {
+                verdicts[i] = GameJournal.VERDICT_VOID;
+            } else if (legal[i]) {
+                verdicts[i] = GameJournal.VERDICT_POINT;
+                taken.addAll(cards);
+                for (int card : cards) {
+                    removedSlots.add(this.table.cardToSlot[card]);
+                }
+            } else {
+                verdicts[i] = GameJournal.VERDICT_PENALTY;
+            }
+            verdict(claims.get(i), verdicts[i], i < size - 1);
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (verdicts[i] == GameJournal.VERDICT_PENALTY) {
+                for (int card : claimCards.get(i)) {
+                    this.table.removeToken(claims.get(i), this.table.cardToSlot[card]);
+                }
+            }
+        }
+
+        // refill the slots in order, as placeCardsOnTable does
+        Collections.sort(removedSlots);
+        int[] slots = removedSlots.stream().mapToInt(Integer::intValue).toArray();
+        int[] cards = new int[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            cards[i] = this.deck.isEmpty() ? -1 : this.deck.remove(0);
+        }
+        this.table.replaceCards(slots, cards);
+    }
+
+    /**
+     * Check if any cards can be removed from the deck and placed on the table.
+     */
+    void placeCardsOnTable() {
+        int[] slots = new int[this.table.slotToCard.length];
+        int[] cards = new int[slots.length];
+        int count = 0;
+        for (int i = 0; i < slots.length && count < this.deck.size(); i++) {
             // place case empty
             if (this.table.slotToCard[i] == null) {
-                // remove first
-                int card = this.deck.get(0);
-                this.deck.remove(0);
-                this.table.placeCard(card, i);
+                slots[count] = i;
+                cards[count] = this.deck.get(count);
+                count++;
             }
         }
+        if (count > 0) {
+            this.table.placeCards(Arrays.copyOf(cards, count), Arrays.copyOf(slots, count));
+            this.deck.subList(0, count).clear();
+        }
+        if (env.config.hints) {
+            this.table.hints();
+        }
     }
 
     /**
@@ -211,29 +660,29 @@ public class Dealer implements Runnable {
     private void sleepUntilWokenOrTimeout() {
         try {
             synchronized (this) {
-                this.wait(env.config.tableDelayMillis);
+                // wait(0) would wait until notified
+                this.wait(Math.max(1, env.config.tableDelayMillis));
             }
         } catch (InterruptedException ignored) {
         }
     }
 
     /**
-     * Reset and/or update the countdown and the countdown display.
+     * Reset the countdown and/or publish it to the countdown display (which shows it from its own thread, only when
+     * the value shown changes).
      */
     private void updateTimerDisplay(boolean reset) {
         if (this.env.config.turnTimeoutMillis > 0) {
             if (reset) {
                 this.reshuffleTime = System.currentTimeMillis() + this.env.config.turnTimeoutMillis;
             }
-            long diff = this.reshuffleTime - System.currentTimeMillis();
-            this.env.ui.setCountdown(Math.max(diff, 0), diff < this.env.config.turnTimeoutWarningMillis);
+            this.timerDisplay.countdown(this.reshuffleTime);
 
         } else if (this.env.config.turnTimeoutMillis == 0) {
             if (reset) {
                 this.startTime = System.currentTimeMillis();
             }
-            long diff = System.currentTimeMillis() - this.startTime;
-            this.env.ui.setCountdown(diff, false);
+            this.timerDisplay.elapsed(this.startTime);
 
         }
     }
@@ -242,31 +691,146 @@ public class Dealer implements Runnable {
     /**
      * Returns all the cards from the table to the deck.
      */
-    private void removeAllCardsFromTable() {
-        for (int i = 0; i < this.table.slotToCard.length; i++) {
-            Integer currCard = this.table.slotToCard[i];
-            if (currCard == null) {
-                continue;
-            }
-            this.deck.add(currCard);
-            this.table.removeCard(i);
+    void removeAllCardsFromTable() {
+        for (int card : this.table.removeAllCards()) {
+            this.deck.add(card);
         }
+        env.journal.record(GameJournal.RESHUFFLE, -1, -1, deck.size());
     }
 
 
-    private int[] getWinnersIds() {
-        int maxScore = players[0].getScore();
-        ArrayList<Integer> winners = new ArrayList<>();
-        for (Player player : players) {
-            maxScore = Math.max(maxScore, player.getScore());
-        }
-        for (Player player : players) {
-            if (player.getScore() == maxScore) {
-                winners.add(player.getId());
+    /**
+     * Takes a snapshot of the full game state. If the dealer thread is running, the snapshot is taken by it between
+     * two steps of the game, so it is consistent.
+     *
+     * @return - the snapshot.
+     */
+    public GameSnapshot snapshot() {
+        Thread thread = dealerThread;
+        if (thread == null || thread == Thread.currentThread() || !thread.isAlive()) {
+            return takeSnapshot();
+        }
+        // callers asking together share the request in flight
+        CompletableFuture<GameSnapshot> request;
+        synchronized (this) {
+            if (snapshotRequest == null)
+                snapshotRequest = new CompletableFuture<>();
+            request = snapshotRequest;
+            this.notifyAll();
+        }
+        while (true) {
+            try {
+                return request.get(env.config.tableDelayMillis + 1, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (!thread.isAlive()) {
+                    // the dealer thread will not serve the request anymore
+                    synchronized (this) {
+                        if (snapshotRequest == request)
+                            snapshotRequest = null;
+                    }
+                    return request.isDone() ? request.join() : takeSnapshot();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
             }
         }
+    }
+
+    private void serveSnapshotRequest() {
+        CompletableFuture<GameSnapshot> request;
+        synchronized (this) {
+            request = snapshotRequest;
+            snapshotRequest = null;
+        }
+        if (request != null) {
+            request.complete(takeSnapshot());
+        }
+    }
+
+    private GameSnapshot takeSnapshot() {
+        long now = System.currentTimeMillis();
+
+        int[] slots = new int[env.config.tableSize];
+        int[][] tokens = new int[players.length][];
+        table.copyState(slots, tokens);
+        int[] scores = new int[players.length];
+        long[] freezes = new long[players.length];
+        for (int i = 0; i < players.length; i++) {
+            scores[i] = registry.score(i);
+            freezes[i] = registry.freezeRemaining(i, now);
+        }
+        return new GameSnapshot(shuffleSeed, env.config.deckSize, deck.stream().mapToInt(Integer::intValue).toArray(),
+                slots, tokens, scores, freezes,
+                reshuffleTime == Long.MAX_VALUE ? -1 : Math.max(0, reshuffleTime - now),
+                startTime == Long.MAX_VALUE ? -1 : now - startTime);
+    }
+
+    /**
+     * Restores a snapshot into this game, before the dealer thread is started.
+     *
+     * @param snapshot - the snapshot (taken from a game with the same settings).
+     * @throws IllegalArgumentException - if the snapshot's settings differ from the game's.
+     */
+    public void restore(GameSnapshot snapshot) {
+        if (snapshot.players() != players.length || snapshot.tableSize() != env.config.tableSize
+                || snapshot.deckSize != env.config.deckSize)
+            throw new IllegalArgumentException("snapshot settings do not match the game settings");
+        long now = System.currentTimeMillis();
+
+        this.seed = snapshot.seed;
+        this.shuffleSeed = snapshot.seed;
+        this.deck.clear();
+        for (int card : snapshot.deck)
+            this.deck.add(card);
+        this.table.restore(snapshot.slotToCard, snapshot.tokens);
+        this.scoreboard.reset(snapshot.scores);
+        for (int i = 0; i < players.length; i++)
+            players[i].restore(snapshot.scores[i], snapshot.freezeRemaining[i]);
+        this.reshuffleTime = snapshot.reshuffleRemaining < 0 ? Long.MAX_VALUE : now + snapshot.reshuffleRemaining;
+        this.startTime = snapshot.elapsed < 0 ? Long.MAX_VALUE : now - snapshot.elapsed;
+        this.resumeRound = table.countCards() > 0;
+    }
+
+    /**
+     * Records the verdict of a player's claim.
+     */
+    private void verdict(int player, long verdict) {
+        verdict(player, verdict, false);
+    }
+
+    /**
+     * Records the verdict of a player's claim.
+     *
+     * @param more - true iff more verdicts of the same batch follow (the batch is replayed as one unit).
+     */
+    private void verdict(int player, long verdict, boolean more) {
+        env.journal.record(GameJournal.VERDICT, more, -1, player, verdict);
+        tally.verdict(player, verdict, System.nanoTime() - claimedAt[player]);
+    }
 
-        return winners.stream().mapToInt(i -> i).toArray();
+    /**
+     * Awards a point to a player.
+     */
+    private void point(int player) {
+        this.players[player].point();
+    }
+
+    /**
+     * @return - the players' scores (a live view, readable from any thread).
+     */
+    public Scoreboard scoreboard() {
+        return scoreboard;
+    }
+
+    /**
+     * @return - the state of the players.
+     */
+    public PlayerRegistry registry() {
+        return registry;
+    }
+
+    private int[] getWinnersIds() {
+        return scoreboard.leaders();
     }
 
     /**
@@ -0,0 +1,203 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.GameJournal;
+import bguspl.set.HeadlessUserInterface;
+import bguspl.set.UtilImpl;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class re-runs a game recorded by the GameJournal through the real dealer, table and player logic, on the
+ * calling thread and without any of the game's delays.
+ * The deck is shuffled with the recorded seed, the recorded key presses are applied to the table in their original
+ * order, and every deal, verdict, reshuffle and score is checked against the recording. The claims of a batch
+ * (consecutive verdicts flagged as followed by more) are checked together, as the dealer checked them.
+ */
+public class GameReplay implements GameJournal.RecordHandler {
+
+    /**
+     * The game environment object (should have no table delay).
+     */
+    private final Env env;
+
+    /**
+     * Game entities (the dealer is created once the seed is read).
+     */
+    private final Table table;
+    private final Player[] players;
+    private Dealer dealer;
+
+    /**
+     * True iff the deck has to be shuffled before the next deal.
+     */
+    private boolean shufflePending = true;
+
+    /**
+     * True iff the dealer has to refill the table before the next deal is checked.
+     */
+    private boolean dealPending = true;
+
+    /**
+     * The claims of the batch being read: the player and the recorded verdict (claimed when the batch is complete).
+     */
+    private final List<long[]> batch = new ArrayList<>();
+
+    private long records;
+    private long verdicts;
+    private final List<String> mismatches = new ArrayList<>();
+
+    /**
+     * @param env - the game environment object of the replay (same game settings as the recorded game).
+     */
+    public GameReplay(Env env) {
+        this.env = env;
+        this.table = new Table(env);
+        this.players = new Player[env.config.players];
+    }
+
+    private void mismatch(String message) {
+        mismatches.add("record " + records + ": " + message);
+    }
+
+    @Override
+    public void record(long time, byte type, boolean flag, int slot, int player, long value) {
+        records++;
+        switch (type) {
+            case GameJournal.GAME_START:
+                if (player != env.config.players || slot != env.config.tableSize || value != env.config.deckSize)
+                    mismatch("game settings differ: players " + player + " table " + slot + " deck " + value);
+                break;
+            case GameJournal.SEED:
+                dealer = new Dealer(env, table, players, value);
+                for (int i = 0; i < players.length; i++)
+                    players[i] = new Player(env, dealer, table, i, i < env.config.humanPlayers);
+                break;
+            case GameJournal.DEAL:
+                if (dealPending) {
+                    if (shufflePending) {
+                        // the dealer does not deal from a deck without a set (shuffleDeck would never return)
+                        if (dealer.shouldFinish()) {
+                            mismatch("card " + value + " was dealt to slot " + slot + " but the deck has no set");
+                            break;
+                        }
+                        dealer.shuffleDeck();
+                    }
+                    dealer.placeCardsOnTable();
+                    shufflePending = false;
+                    dealPending = false;
+                }
+                if (table.slotToCard[slot] == null || table.slotToCard[slot] != value)
+                    mismatch("card " + value + " was dealt to slot " + slot + " but the replay dealt " + table.slotToCard[slot]);
+                break;
+            case GameJournal.PRESS:
+                table.keyPressed(player, slot);
+                break;
+            case GameJournal.VERDICT:
+                batch.add(new long[]{player, value});
+                if (!flag)
+                    checkBatch();
+                break;
+            case GameJournal.RESHUFFLE:
+                dealer.removeAllCardsFromTable();
+                if (dealer.deckSize() != value)
+                    mismatch("deck has " + dealer.deckSize() + " cards after reshuffle instead of " + value);
+                shufflePending = true;
+                dealPending = true;
+                break;
+            case GameJournal.SCORE:
+                if (players[player].getScore() != value)
+                    mismatch("player " + player + " score is " + players[player].getScore() + " instead of " + value);
+                break;
+            default:
+                // the rest of the records are effects of the ones above
+                break;
+        }
+    }
+
+    /**
+     * Claims the sets of a batch, lets the dealer check them together and compares the verdicts.
+     */
+    private void checkBatch() {
+        int[] scores = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Player player = players[(int) batch.get(i)[0]];
+            scores[i] = player.getScore();
+            dealer.claimSet(player);
+        }
+        dealer.removeCardsFromTable();
+
+        for (int i = 0; i < batch.size(); i++) {
+            verdicts++;
+            int player = (int) batch.get(i)[0];
+            long recorded = batch.get(i)[1];
+            long replayed;
+            if (players[player].getScore() > scores[i])
+                replayed = GameJournal.VERDICT_POINT;
+            else if (players[player].getPlayerState() == Player.PlayerState.PENALIZED)
+                replayed = GameJournal.VERDICT_PENALTY;
+            else
+                replayed = GameJournal.VERDICT_VOID;
+            // there is no player thread to serve the freeze
+            players[player].setPlayerState(Player.PlayerState.INIT);
+
+            if (replayed != recorded)
+                mismatch("player " + player + " verdict is " + replayed + " instead of " + recorded);
+            if (replayed == GameJournal.VERDICT_POINT)
+                dealPending = true;
+        }
+        batch.clear();
+    }
+
+    /**
+     * @return - the number of records replayed.
+     */
+    public long records() {
+        return records;
+    }
+
+    /**
+     * @return - the number of verdicts checked.
+     */
+    public long verdicts() {
+        return verdicts;
+    }
+
+    /**
+     * @return - the differences found between the recording and the replay.
+     */
+    public List<String> mismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Replays a recorded game.
+     *
+     * @param args - the journal directory and the configuration file of the recorded game (default config.properties).
+     */
+    public static void main(String[] args) throws IOException {
+        Logger logger = Logger.getLogger("SetGameLogger");
+        Properties properties = Config.loadProperties(args.length > 1 ? args[1] : "config.properties", logger);
+        properties.setProperty("TableDelaySeconds", "0");
+        // the verdicts are replayed one by one on this thread
+        properties.setProperty("ClaimValidators", "0");
+        Config config = new Config(logger, properties);
+        logger.setLevel(Level.WARNING);
+
+        GameReplay replay = new GameReplay(new Env(logger, config, new HeadlessUserInterface(), new UtilImpl(config)));
+        long start = System.nanoTime();
+        GameJournal.read(Paths.get(args[0]), replay);
+        long elapsed = System.nanoTime() - start;
+
+        replay.mismatches().forEach(System.out::println);
+        System.out.println("replayed " + replay.records() + " records and " + replay.verdicts() + " verdicts in "
+                + elapsed / 1000000 + " ms, " + replay.mismatches().size() + " mismatches.");
+    }
+}
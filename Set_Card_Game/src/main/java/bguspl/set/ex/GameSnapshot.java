@@ -0,0 +1,169 @@
+package bguspl.set.ex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The full state of a game at a point in time: the deck, the cards on the table, every player's tokens, score and
+ * freeze, and the dealer's timers.
+ * A snapshot is taken with Dealer.snapshot(), written and read through NIO channels in a compact versioned binary
+ * format, and restored with Dealer.restore() into any number of new games of the same settings.
+ * Times are kept relative (remaining freeze, remaining time until reshuffle), so a snapshot can be resumed later.
+ */
+public class GameSnapshot {
+
+    /**
+     * The first bytes of every snapshot ("SETS").
+     */
+    private static final int MAGIC = 0x53455453;
+
+    /**
+     * The version of the binary format.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * The size of the header: magic, version and body length.
+     */
+    private static final int HEADER_SIZE = 4 + 2 + 4;
+
+    /**
+     * The seed of the next shuffle of the deck (the restored dealer continues the game's sequence of shuffles).
+     */
+    final long seed;
+
+    final int deckSize;
+    final int[] deck;
+
+    /**
+     * The card in every slot (-1 if none).
+     */
+    final int[] slotToCard;
+
+    /**
+     * The cards every player has tokens on, in the order they were placed.
+     */
+    final int[][] tokens;
+    final int[] scores;
+    final long[] freezeRemaining;
+
+    /**
+     * The milliseconds left until the dealer reshuffles, and since the last set was collected.
+     */
+    final long reshuffleRemaining;
+    final long elapsed;
+
+    GameSnapshot(long seed, int deckSize, int[] deck, int[] slotToCard, int[][] tokens, int[] scores,
+                 long[] freezeRemaining, long reshuffleRemaining, long elapsed) {
+        this.seed = seed;
+        this.deckSize = deckSize;
+        this.deck = deck;
+        this.slotToCard = slotToCard;
+        this.tokens = tokens;
+        this.scores = scores;
+        this.freezeRemaining = freezeRemaining;
+        this.reshuffleRemaining = reshuffleRemaining;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return - the number of players in the snapshot.
+     */
+    public int players() {
+        return scores.length;
+    }
+
+    /**
+     * @return - the number of slots on the table in the snapshot.
+     */
+    public int tableSize() {
+        return slotToCard.length;
+    }
+
+    private int bodySize() {
+        int size = 8 + 4 + 4 + 4 * deck.length + 4 + 4 * slotToCard.length + 4;
+        for (int[] playerTokens : tokens)
+            size += 4 + 8 + 4 + 4 * playerTokens.length;
+        return size + 8 + 8;
+    }
+
+    /**
+     * Writes the snapshot to a channel.
+     *
+     * @param channel - the channel to write to.
+     */
+    public void write(WritableByteChannel channel) throws IOException {
+        int bodySize = bodySize();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bodySize);
+        buffer.putInt(MAGIC).putShort(VERSION).putInt(bodySize);
+
+        buffer.putLong(seed).putInt(deckSize);
+        buffer.putInt(deck.length);
+        for (int card : deck)
+            buffer.putInt(card);
+        buffer.putInt(slotToCard.length);
+        for (int card : slotToCard)
+            buffer.putInt(card);
+        buffer.putInt(scores.length);
+        for (int player = 0; player < scores.length; player++) {
+            buffer.putInt(scores[player]).putLong(freezeRemaining[player]).putInt(tokens[player].length);
+            for (int card : tokens[player])
+                buffer.putInt(card);
+        }
+        buffer.putLong(reshuffleRemaining).putLong(elapsed);
+
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            if (channel.read(buffer) < 0)
+                throw new IOException("snapshot is truncated");
+        buffer.flip();
+    }
+
+    /**
+     * Reads a snapshot from a channel.
+     *
+     * @param channel - the channel to read from.
+     * @return - the snapshot.
+     */
+    public static GameSnapshot read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header);
+        if (header.getInt() != MAGIC)
+            throw new IOException("not a game snapshot");
+        short version = header.getShort();
+        if (version != VERSION)
+            throw new IOException("unsupported snapshot version " + version);
+        ByteBuffer buffer = ByteBuffer.allocate(header.getInt());
+        readFully(channel, buffer);
+
+        long seed = buffer.getLong();
+        int deckSize = buffer.getInt();
+        int[] deck = new int[buffer.getInt()];
+        for (int i = 0; i < deck.length; i++)
+            deck[i] = buffer.getInt();
+        int[] slotToCard = new int[buffer.getInt()];
+        for (int i = 0; i < slotToCard.length; i++)
+            slotToCard[i] = buffer.getInt();
+        int players = buffer.getInt();
+        int[] scores = new int[players];
+        long[] freezeRemaining = new long[players];
+        int[][] tokens = new int[players][];
+        for (int player = 0; player < players; player++) {
+            scores[player] = buffer.getInt();
+            freezeRemaining[player] = buffer.getLong();
+            tokens[player] = new int[buffer.getInt()];
+            for (int i = 0; i < tokens[player].length; i++)
+                tokens[player][i] = buffer.getInt();
+        }
+        long reshuffleRemaining = buffer.getLong();
+        long elapsed = buffer.getLong();
+        return new GameSnapshot(seed, deckSize, deck, slotToCard, tokens, scores, freezeRemaining, reshuffleRemaining, elapsed);
+    }
+}
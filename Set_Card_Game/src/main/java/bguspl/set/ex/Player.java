@@ -1,13 +1,16 @@
 package bguspl.set.ex;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Objects;
 import java.util.logging.Level;
 
+import bguspl.set.ClaimLatency;
 import bguspl.set.Env;
+import bguspl.set.GameJournal;
 
 /**
  * This class manages the players' threads and data
+ * The score, the penalties, the state, the freeze and the termination flag of the player are kept in a PlayerRegistry
+ * shared by all the players of the game (this object is a view of its part of it). Points are awarded through the
+ * game's Scoreboard, which keeps the players ordered by score.
  *
  * @inv id >= 0
  * @inv score >= 0
@@ -29,14 +32,14 @@ public class Player implements Runnable {
     public final int id;
 
     /**
-     * The thread representing the current player.
+     * The thread representing the current player (published by start(), before the thread runs).
      */
-    private Thread playerThread;
+    private volatile Thread playerThread;
 
     /**
      * The thread of the AI (computer) player (an additional thread used to generate key presses).
      */
-    private Thread aiThread;
+    private volatile Thread aiThread;
 
     /**
      * True iff the player is human (not a computer player).
@@ -44,30 +47,45 @@ public class Player implements Runnable {
     private final boolean human;
 
     /**
-     * True iff game should be terminated due to an external event.
+     * The state of the players of the game (the score, the penalties, the state, the freeze deadline, the termination
+     * flag and the action cursors of this player are at its id).
      */
-    private volatile boolean terminate;
-
-    /**
-     * The current score of the player.
-     */
-    private int score;
+    private final PlayerRegistry registry;
+    private final Scoreboard scoreboard;
 
 
     private final Dealer dealer;
 
 
-    public final BlockingQueue<Integer> actions;
+    /**
+     * The slots pressed and not yet performed (filled by the input threads, taken by the player thread).
+     */
+    public final ActionRing actions;
+
+    /**
+     * The System.nanoTime() of the last accepted key press per slot (for latency tracing).
+     */
+    private final long[] pressedAt;
+
+    /**
+     * The System.nanoTime() of the last verdict (point or penalty) given to the player.
+     */
+    private long verdictAt;
 
     enum PlayerState {
         INIT, PENALIZED, SCORED
     }
 
-    public PlayerState playerState;
+    public PlayerState getPlayerState() {
+        return registry.state(id);
+    }
 
+    public void setPlayerState(PlayerState state) {
+        registry.setState(id, state);
+    }
 
     public boolean isTerminate() {
-        return this.terminate;
+        return registry.isTerminated(id);
     }
 
     /**
@@ -80,13 +98,30 @@ public class Player implements Runnable {
      * @param human  - true iff the player is a human player (i.e. input is provided manually, via the keyboard).
      */
     public Player(Env env, Dealer dealer, Table table, int id, boolean human) {
+        this(env, dealer, table, id, human, dealer.scoreboard());
+    }
+
+    /**
+     * The class constructor.
+     *
+     * @param env      - the environment object.
+     * @param dealer   - the dealer object.
+     * @param table    - the table object.
+     * @param id       - the id of the player.
+     * @param human    - true iff the player is a human player (i.e. input is provided manually, via the keyboard).
+     * @param scoreboard - the scoreboard of the game (its registry keeps the state of the player).
+     */
+    public Player(Env env, Dealer dealer, Table table, int id, boolean human, Scoreboard scoreboard) {
         this.env = env;
         this.table = table;
         this.id = id;
         this.human = human;
         this.dealer = dealer;
-        this.actions = new ArrayBlockingQueue<>(3);
-        this.playerState = PlayerState.INIT;
+        this.scoreboard = Objects.requireNonNull(scoreboard, "the player needs the scoreboard of its game");
+        this.registry = scoreboard.registry();
+        this.actions = registry.newActionRing(id, env.config.featureSize);
+        this.pressedAt = new long[env.config.tableSize];
+        registry.setState(id, PlayerState.INIT);
     }
 
     public int actionsToPerform() {
@@ -97,6 +132,16 @@ public class Player implements Runnable {
         return this.id;
     }
 
+    /**
+     * Starts the player thread. The thread is published before it runs, so terminate() stops it however early it is
+     * called.
+     */
+    void start() {
+        Thread thread = new Thread(this, "player-" + id);
+        playerThread = thread;
+        thread.start();
+    }
+
     /**
      * The main player thread of each player starts here (main loop for the player thread).
      */
@@ -107,13 +152,22 @@ public class Player implements Runnable {
         synchronized (this.dealer) {
             if (!human) createArtificialIntelligence();
         }
-        while (!terminate) {
+        // serve the rest of a freeze restored from a snapshot
+        if (registry.state(id) != PlayerState.INIT) {
+            updateScoreTimeout(Math.max(0, registry.freezeUntil(id) - System.currentTimeMillis()));
+        }
+        while (!isTerminate()) {
             // consume from queue
             try {
                 int slot = this.actions.take();
+                if (slot < 0)
+                    continue;
+                env.latency.recordSince(ClaimLatency.Stage.ACTION_QUEUE, pressedAt[slot]);
                 boolean isSet = false;
+                long tableStart = System.nanoTime();
                 this.table.keyPressed(this.id, slot);
-                isSet = this.table.getPlayerCards(id).size() == 3;
+                env.latency.recordSince(ClaimLatency.Stage.TABLE_KEY_PRESS, tableStart);
+                isSet = this.table.getPlayerCards(id).size() == env.config.featureSize;
                 if (isSet) {
                     this.dealer.claimSet(this);
                 }
@@ -122,12 +176,16 @@ public class Player implements Runnable {
                         this.dealer.notify();
                     }
                     synchronized (this) {
-                        if (this.playerState == PlayerState.INIT) {
+                        if (registry.state(id) == PlayerState.INIT) {
                             this.wait();
                         }
+                        if (registry.state(id) != PlayerState.INIT) {
+                            env.latency.recordSince(ClaimLatency.Stage.WAKEUP, verdictAt);
+                            env.latency.recordSince(ClaimLatency.Stage.END_TO_END, pressedAt[slot]);
+                        }
                     }
 
-                    switch (this.playerState) {
+                    switch (registry.state(id)) {
                         case INIT:
                             break;
                         case SCORED:
@@ -150,6 +208,7 @@ public class Player implements Runnable {
 
     private void updateScoreTimeout(long time) {
         long end = System.currentTimeMillis() + time;
+        registry.setFreezeUntil(id, end);
         long diff = time;
         while (diff > 0) {
             this.env.ui.setFreeze(id, diff + 1000);
@@ -157,26 +216,26 @@ public class Player implements Runnable {
         }
         this.env.ui.setFreeze(id, 0);
         this.actions.clear();
-        this.playerState = PlayerState.INIT;
-    }
-
-    private void randomAction() {
-        int numOfKeys = env.config.playerKeys(id).length;
-        int randomSlot = ThreadLocalRandom.current().nextInt(0, numOfKeys);
-        keyPressed(randomSlot);
+        registry.setState(id, PlayerState.INIT);
     }
 
     /**
      * Creates an additional thread for an AI (computer) player. The main loop of this thread repeatedly generates
-     * key presses. If the queue of key presses is full, the thread waits until it is not full.
+     * key presses, chosen by the player's strategy, every config.computerDelayMillis. The next press is chosen only
+     * after the previous ones were performed, so the strategy sees their tokens on the board.
      */
     private void createArtificialIntelligence() {
+        ComputerStrategy strategy = ComputerStrategy.of(env.config.computerStrategies[id]);
         aiThread = new Thread(() -> {
             env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " starting.");
-            while (!terminate) {
-                randomAction();
+            while (!isTerminate()) {
+                if (actions.size() == 0) {
+                    int slot = strategy.nextSlot(env, table.snapshot(), id);
+                    if (slot >= 0)
+                        keyPressed(slot);
+                }
                 try {
-                    aiThread.sleep(500);
+                    Thread.sleep(env.config.computerDelayMillis);
                 } catch (InterruptedException e) {
                     break;
                 }
@@ -190,10 +249,11 @@ public class Player implements Runnable {
      * Called when the game should be terminated due to an external event.
      */
     public void terminate() {
-        terminate = true;
+        registry.terminate(id);
+        actions.wakeUp();
 
         // stop ai thread
-        if (!human) {
+        if (!human && aiThread != null) {
 
             aiThread.interrupt();
             while (aiThread.isAlive())
@@ -202,7 +262,10 @@ public class Player implements Runnable {
                 } catch (InterruptedException ignored) {
                 }
         }
-        // stop player thread
+        // stop player thread (if it was started)
+        if (playerThread == null) {
+            return;
+        }
         playerThread.interrupt();
         while (playerThread.isAlive())
             try {
@@ -218,18 +281,18 @@ public class Player implements Runnable {
      * @param slot - the slot corresponding to the key pressed.
      */
     public void keyPressed(int slot) {
-        synchronized (this) {
-            if (this.playerState != PlayerState.INIT) {
-                return;
-            }
-            if (this.table.isEmptySlot(slot)) {
-                return;
-            }
-            if (this.actions.size() >= 3) {
-                return;
-            }
-            this.actions.add(slot);
+        if (registry.state(id) != PlayerState.INIT) {
+            return;
         }
+        if (this.table.isEmptySlot(slot)) {
+            return;
+        }
+        if (env.config.visualFidelity && env.ui.isAnimating()) {
+            return;
+        }
+        // dropped if the ring is full
+        this.pressedAt[slot] = System.nanoTime();
+        this.actions.offer(slot);
     }
 
     /**
@@ -241,9 +304,12 @@ public class Player implements Runnable {
     public void point() {
         synchronized (this) {
             int ignored = table.countCards();
-            env.ui.setScore(id, ++score);
+            int score = scoreboard.point(id);
+            env.ui.setScore(id, score);
+            env.journal.record(GameJournal.SCORE, -1, id, score);
+            this.verdictAt = System.nanoTime();
             this.notify();
-            this.playerState = PlayerState.SCORED;
+            registry.setState(id, PlayerState.SCORED);
         }
     }
 
@@ -252,8 +318,35 @@ public class Player implements Runnable {
      */
     public void penalty() {
         synchronized (this) {
+            registry.addPenalty(id);
+            this.verdictAt = System.nanoTime();
             this.notify();
-            this.playerState = PlayerState.PENALIZED;
+            registry.setState(id, PlayerState.PENALIZED);
+        }
+    }
+
+    /**
+     * @param now - the current time (System.currentTimeMillis()).
+     * @return - the milliseconds left until the player is no longer frozen (0 if not frozen).
+     */
+    long freezeRemaining(long now) {
+        return registry.freezeRemaining(id, now);
+    }
+
+    /**
+     * Shows the player's restored score and sets its freeze from a snapshot (before the player thread starts). The
+     * score itself is restored by the dealer, through the scoreboard.
+     *
+     * @param score        - the score.
+     * @param freezeMillis - the milliseconds left in the player's freeze (0 if not frozen).
+     */
+    void restore(int score, long freezeMillis) {
+        synchronized (this) {
+            env.ui.setScore(id, score);
+            if (freezeMillis > 0) {
+                registry.setFreezeUntil(id, System.currentTimeMillis() + freezeMillis);
+                registry.setState(id, PlayerState.PENALIZED);
+            }
         }
     }
 
@@ -261,6 +354,13 @@ public class Player implements Runnable {
      * Returns the total score of the player
      */
     public int getScore() {
-        return score;
+        return registry.score(id);
+    }
+
+    /**
+     * Returns the number of penalties the player got
+     */
+    public int getPenalties() {
+        return registry.penalties(id);
     }
 }
@@ -0,0 +1,130 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The state of all the players of a game in one primitive array, a Player being a view of its part of it: the score,
+ * the penalties, the state, the freeze deadline, the termination flag and the cursors of the action ring.
+ * <p>
+ * The array is not aligned to cache lines, so every player gets two lines' worth of longs (STRIDE) with its fields in
+ * the middle: the fields of two players are more than a cache line apart wherever the array starts, so the threads of
+ * different players never write to the same cache line. A block of padding at both ends of the array keeps the first
+ * and the last players' fields off the lines of neighbouring objects. A scan of one field over all the players (e.g.
+ * terminating all of them) goes through the array instead of through the Player objects.
+ * <p>
+ * The registry is the only place the scores are kept; they are written through the game's Scoreboard, which keeps
+ * the players ordered by them. All the fields are read and written with volatile semantics.
+ */
+public class PlayerRegistry {
+
+    /**
+     * The number of longs of every player (two 64 bytes cache lines), and the offset of its fields in them.
+     */
+    static final int STRIDE = 16;
+    static final int FIELDS_OFFSET = 4;
+
+    static final int SCORE = 0;
+    static final int PENALTIES = 1;
+    static final int STATE = 2;
+    static final int FREEZE_UNTIL = 3;
+    static final int ACTION_HEAD = 4;
+    static final int ACTION_TAIL = 5;
+    static final int TERMINATE = 6;
+
+    private static final Player.PlayerState[] STATES = Player.PlayerState.values();
+
+    private final int players;
+    private final AtomicLongArray fields;
+
+    /**
+     * @param players - the number of players (with ids 0 to players - 1).
+     */
+    public PlayerRegistry(int players) {
+        this.players = players;
+        this.fields = new AtomicLongArray((players + 2) * STRIDE);
+    }
+
+    private static int at(int player, int field) {
+        return (player + 1) * STRIDE + FIELDS_OFFSET + field;
+    }
+
+    /**
+     * @return - the number of players.
+     */
+    public int size() {
+        return players;
+    }
+
+    public int score(int player) {
+        return (int) fields.get(at(player, SCORE));
+    }
+
+    /**
+     * @return - the player's new score.
+     */
+    int addPoint(int player) {
+        return (int) fields.incrementAndGet(at(player, SCORE));
+    }
+
+    void setScore(int player, int score) {
+        fields.set(at(player, SCORE), score);
+    }
+
+    public int penalties(int player) {
+        return (int) fields.get(at(player, PENALTIES));
+    }
+
+    void addPenalty(int player) {
+        fields.incrementAndGet(at(player, PENALTIES));
+    }
+
+    Player.PlayerState state(int player) {
+        return STATES[(int) fields.get(at(player, STATE))];
+    }
+
+    void setState(int player, Player.PlayerState state) {
+        fields.set(at(player, STATE), state.ordinal());
+    }
+
+    /**
+     * @return - the time (System.currentTimeMillis()) until which the player is frozen.
+     */
+    long freezeUntil(int player) {
+        return fields.get(at(player, FREEZE_UNTIL));
+    }
+
+    void setFreezeUntil(int player, long time) {
+        fields.set(at(player, FREEZE_UNTIL), time);
+    }
+
+    public boolean isTerminated(int player) {
+        return fields.get(at(player, TERMINATE)) != 0;
+    }
+
+    void terminate(int player) {
+        fields.set(at(player, TERMINATE), 1);
+    }
+
+    /**
+     * Marks all the players as terminated, in one pass over the registry.
+     */
+    void terminateAll() {
+        for (int player = 0; player < players; player++)
+            fields.set(at(player, TERMINATE), 1);
+    }
+
+    /**
+     * @param now - the current time (System.currentTimeMillis()).
+     * @return - the milliseconds left until the player is no longer frozen (0 if not frozen).
+     */
+    public long freezeRemaining(int player, long now) {
+        return state(player) == Player.PlayerState.INIT ? 0 : Math.max(0, freezeUntil(player) - now);
+    }
+
+    /**
+     * @return - an action ring of the player that keeps its cursors in the registry.
+     */
+    ActionRing newActionRing(int player, int capacity) {
+        return new ActionRing(capacity, fields, at(player, ACTION_HEAD), at(player, ACTION_TAIL));
+    }
+}
@@ -0,0 +1,181 @@
+package bguspl.set.ex;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The scores of all the players, kept ordered by score as points arrive, so the leaders and the top K players are
+ * read in O(K) time however many players there are.
+ * <p>
+ * The players are kept in an array ordered by score (highest first); the players of every score are a contiguous
+ * range of it. A point moves the player to the first position of its range, which then becomes the last position of
+ * the range of the next score, so every point costs O(1).
+ * <p>
+ * The scores themselves are kept in the players' PlayerRegistry, and are written only through the scoreboard. There
+ * is a single writer (the dealer thread). A single score is a volatile read of the registry; the leaders and the top
+ * players are copied under a read lock.
+ */
+public class Scoreboard {
+
+    private final StampedLock lock = new StampedLock();
+
+    private final PlayerRegistry registry;
+
+    /**
+     * The players ordered by score (highest first), and the position of every player in it.
+     */
+    private final int[] order;
+    private final int[] position;
+
+    /**
+     * first[score] is the position of the first player with the score (for scores above the maximum it is 0).
+     * The players with a score s are in positions [first[s], first[s - 1]) (first[-1] being the number of players).
+     */
+    private int[] first;
+
+    private int maxScore;
+
+    /**
+     * @param players - the number of players (all with score 0).
+     */
+    public Scoreboard(int players) {
+        this(new PlayerRegistry(players));
+    }
+
+    /**
+     * @param registry - the registry the players' scores are kept in (all of them 0).
+     */
+    public Scoreboard(PlayerRegistry registry) {
+        int players = registry.size();
+        this.registry = registry;
+        order = new int[players];
+        position = new int[players];
+        first = new int[16];
+        reset(new int[players]);
+    }
+
+    /**
+     * @return - the registry the scores are kept in.
+     */
+    PlayerRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Sets the scores of all the players (for restoring a game).
+     *
+     * @param newScores - the score of every player.
+     */
+    public void reset(int[] newScores) {
+        long stamp = lock.writeLock();
+        try {
+            int[] scores = Arrays.copyOf(newScores, order.length);
+            for (int player = 0; player < scores.length; player++)
+                registry.setScore(player, scores[player]);
+            maxScore = 0;
+            for (int score : scores)
+                maxScore = Math.max(maxScore, score);
+            first = new int[Math.max(16, maxScore + 2)];
+
+            // counting sort by score, highest first
+            int[] counts = new int[maxScore + 1];
+            for (int score : scores)
+                counts[score]++;
+            int start = 0;
+            for (int score = maxScore; score >= 0; score--) {
+                first[score] = start;
+                start += counts[score];
+            }
+            int[] next = Arrays.copyOf(first, maxScore + 1);
+            for (int player = 0; player < scores.length; player++) {
+                int at = next[scores[player]]++;
+                order[at] = player;
+                position[player] = at;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Awards a point to a player (dealer thread only).
+     *
+     * @param player - the player.
+     * @return - the player's new score.
+     */
+    public int point(int player) {
+        long stamp = lock.writeLock();
+        try {
+            int score = registry.score(player);
+            if (score + 2 > first.length)
+                first = Arrays.copyOf(first, first.length * 2);
+
+            // swap the player with the first player of its score, which becomes the last one of the next score
+            int at = first[score];
+            int other = order[at];
+            order[position[player]] = other;
+            position[other] = position[player];
+            order[at] = player;
+            position[player] = at;
+            first[score] = at + 1;
+
+            score = registry.addPoint(player);
+            maxScore = Math.max(maxScore, score);
+            return score;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return - the player's score.
+     */
+    public int score(int player) {
+        return registry.score(player);
+    }
+
+    /**
+     * @return - the highest score.
+     */
+    public int maxScore() {
+        long stamp = lock.tryOptimisticRead();
+        int max = maxScore;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                max = maxScore;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return - the ids of the players with the highest score, in increasing order.
+     */
+    public int[] leaders() {
+        long stamp = lock.readLock();
+        try {
+            int count = maxScore == 0 ? order.length : first[maxScore - 1];
+            int[] leaders = Arrays.copyOf(order, count);
+            Arrays.sort(leaders);
+            return leaders;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @param k - the number of players.
+     * @return - the ids of the k players with the highest scores, highest first (ties in no particular order).
+     */
+    public int[] top(int k) {
+        long stamp = lock.readLock();
+        try {
+            return Arrays.copyOf(order, Math.min(k, order.length));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
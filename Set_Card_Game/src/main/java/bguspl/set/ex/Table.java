@@ -1,13 +1,18 @@
 package bguspl.set.ex;
 
 import bguspl.set.Env;
+import bguspl.set.GameJournal;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
 
 /**
  * This class contains the data that is visible to the player.
@@ -45,6 +50,48 @@ public class Table {
     private final Boolean[][] selectedSlotsByPlayer;
     private final ReentrantLock lock;
 
+    /**
+     * The current board, replaced (under the lock) on every change.
+     */
+    private volatile BoardSnapshot board;
+
+    /**
+     * The subscribers to the changes of the table.
+     */
+    private final List<TableListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The hint lines of a layout version.
+     */
+    private static final class HintCache {
+        final long version;
+        final List<String> lines;
+
+        HintCache(long version, List<String> lines) {
+            this.version = version;
+            this.lines = lines;
+        }
+    }
+
+    private volatile HintCache hintCache;
+
+    /**
+     * The layout version hints were last requested for (by the dealer) and printed for (by the printer thread).
+     */
+    private long hintsRequested = -1;
+    private long hintsPrinted = -1;
+
+    /**
+     * The thread printing the hints of all the tables (created on the first request, when the class is loaded).
+     */
+    private static final class HintPrinter {
+        static final ExecutorService INSTANCE = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hints");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     /**
      * Constructor for testing.
      *
@@ -58,6 +105,7 @@ public class Table {
         this.slotToCard = slotToCard;
         this.cardToSlot = cardToSlot;
         lock = new ReentrantLock(true);
+        board = BoardSnapshot.empty(env.config.players, env.config.tableSize);
 
         // generate empty array list
         playerCards = new ArrayList<>();
@@ -80,19 +128,141 @@ public class Table {
         this(env, new Integer[env.config.tableSize], new Integer[env.config.deckSize]);
     }
 
+    /**
+     * Returns the hint lines of all possible legal sets of cards that are currently on the table.
+     * The lines are computed once per layout version and cached.
+     *
+     * @return - a line per set: its slots and the features of its cards.
+     */
+    public List<String> hintLines() {
+        HintCache cached = hintCache;
+        BoardSnapshot board = this.board;
+        if (cached != null && cached.version == board.layoutVersion)
+            return cached.lines;
+
+        List<Integer> deck = new ArrayList<>();
+        Map<Integer, Integer> slotOf = new HashMap<>();
+        for (int slot = 0; slot < board.tableSize(); slot++)
+            if (board.card(slot) != -1) {
+                deck.add(board.card(slot));
+                slotOf.put(board.card(slot), slot);
+            }
+        List<String> lines = new ArrayList<>();
+        for (int[] set : env.util.findSetsParallel(deck, Integer.MAX_VALUE)) {
+            int[] setSlots = Arrays.stream(set).map(slotOf::get).sorted().toArray();
+            lines.add("Hint: Set found: slots: " + Arrays.toString(setSlots)
+                    + " features: " + Arrays.deepToString(env.util.cardsToFeatures(set)));
+        }
+        lines = Collections.unmodifiableList(lines);
+        hintCache = new HintCache(board.layoutVersion, lines);
+        return lines;
+    }
+
     /**
      * This method prints all possible legal sets of cards that are currently on the table.
+     * The hints are computed and printed on a background thread shared by all the tables, at most once per layout
+     * version.
      */
     public void hints() {
-        List<Integer> deck = Arrays.stream(slotToCard).filter(Objects::nonNull).collect(Collectors.toList());
-        env.util.findSets(deck, Integer.MAX_VALUE).forEach(set -> {
-            StringBuilder sb = new StringBuilder().append("Hint: Set found: ");
-            List<Integer> slots = Arrays.stream(set).mapToObj(card -> cardToSlot[card]).sorted().collect(Collectors.toList());
-            int[][] features = env.util.cardsToFeatures(set);
-            System.out.println(sb.append("slots: ").append(slots).append(" features: ").append(Arrays.deepToString(features)));
+        long version = board.layoutVersion;
+        if (version == hintsRequested)
+            return;
+        hintsRequested = version;
+        HintPrinter.INSTANCE.execute(() -> {
+            long current = board.layoutVersion;
+            if (current == hintsPrinted)
+                return;
+            hintsPrinted = current;
+            StringBuilder sb = new StringBuilder();
+            for (String line : hintLines())
+                sb.append(line).append(System.lineSeparator());
+            System.out.print(sb);
         });
     }
 
+    /**
+     * The version of the layout of cards on the table: incremented every time a card is placed or removed.
+     *
+     * @return - the current layout version.
+     */
+    public long layoutVersion() {
+        return board.layoutVersion;
+    }
+
+    /**
+     * The version of the table: incremented every time a card or a token is placed or removed.
+     *
+     * @return - the current table version.
+     */
+    public long version() {
+        return board.version;
+    }
+
+    /**
+     * @return - the current board (an immutable copy, taken without the table lock).
+     */
+    public BoardSnapshot snapshot() {
+        return board;
+    }
+
+    /**
+     * Subscribes to the changes of the table.
+     *
+     * @param listener - called on every change after the returned board.
+     * @return - the board at subscription time.
+     */
+    public BoardSnapshot subscribe(TableListener listener) {
+        lock.lock();
+        try {
+            listeners.add(listener);
+            return board;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops receiving the changes of the table.
+     *
+     * @param listener - the subscribed listener.
+     */
+    public void unsubscribe(TableListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Publishes a card placed (card >= 0) or removed (card == -1) in a slot.
+     */
+    private void publishCard(int slot, int card, int previousCard) {
+        lock.lock();
+        try {
+            BoardSnapshot board = this.board.withCard(slot, card);
+            this.board = board;
+            for (TableListener listener : listeners)
+                if (card == -1)
+                    listener.cardRemoved(board.version, previousCard, slot);
+                else
+                    listener.cardPlaced(board.version, card, slot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes a player's token placed or removed.
+     */
+    private void publishToken(int player, int slot, boolean placed) {
+        lock.lock();
+        try {
+            BoardSnapshot board = this.board.withToken(player, slot, placed);
+            this.board = board;
+            for (TableListener listener : listeners)
+                listener.tokenChanged(board.version, player, slot, placed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Count the number of cards currently on the table.
      *
@@ -114,16 +284,143 @@ public class Table {
      * @post - the card placed is on the table, in the assigned slot.
      */
     public void placeCard(int card, int slot) {
+        lock.lock();
+        try {
+            putCard(card, slot);
+            this.env.ui.placeCard(card, slot);
+        } finally {
+            lock.unlock();
+        }
+    }
 
+    /**
+     * Places cards on the table in empty grid slots, in one critical section and one update of the ui.
+     *
+     * @param cards - the card ids to place.
+     * @param slots - the slots in which the cards should be placed (respectively).
+     * @return - the number of cards placed (cards for slots that are not empty are not placed).
+     */
+    public int placeCards(int[] cards, int[] slots) {
+        lock.lock();
+        try {
+            int placed = 0;
+            int[] placedCards = new int[cards.length];
+            int[] placedSlots = new int[cards.length];
+            for (int i = 0; i < cards.length; i++) {
+                if (this.slotToCard[slots[i]] != null)
+                    continue;
+                putCard(cards[i], slots[i]);
+                placedCards[placed] = cards[i];
+                placedSlots[placed++] = slots[i];
+            }
+            this.env.ui.placeCards(Arrays.copyOf(placedCards, placed), Arrays.copyOf(placedSlots, placed));
+            return placed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all the cards from the table (with all the tokens), in one critical section and one update of the ui.
+     *
+     * @return - the cards removed, in slot order.
+     */
+    public int[] removeAllCards() {
+        lock.lock();
+        try {
+            int removed = 0;
+            int[] cards = new int[slotToCard.length];
+            int[] slots = new int[slotToCard.length];
+            for (int slot = 0; slot < slotToCard.length; slot++) {
+                if (this.slotToCard[slot] == null)
+                    continue;
+                cards[removed] = takeCard(slot);
+                slots[removed++] = slot;
+            }
+            this.env.ui.removeTokens();
+            this.env.ui.removeCards(Arrays.copyOf(slots, removed));
+            return Arrays.copyOf(cards, removed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Places a card in an empty slot (without updating the ui, the lock must be held).
+     */
+    private void putCard(int card, int slot) {
         cardToSlot[card] = slot;
         slotToCard[slot] = card;
+        publishCard(slot, card, -1);
+        this.env.journal.record(GameJournal.DEAL, slot, -1, card);
+    }
+
+    /**
+     * Removes the card in a slot with the tokens on it (without updating the ui, the lock must be held).
+     *
+     * @return - the card removed.
+     */
+    private int takeCard(int slot) {
+        int card = this.slotToCard[slot];
+        this.env.journal.record(GameJournal.REMOVE, slot, -1, card);
+        for (int player = 0; player < env.config.players; player++) {
+            if (selectedSlotsByPlayer[player][slot])
+                dropToken(player, slot);
+        }
+        removeSlotMapping(slot);
+        return card;
+    }
 
-        this.env.ui.placeCard(card, slot);
+    /**
+     * Removes the cards in some slots (with all the tokens on them) and places new cards in them, in one critical
+     * section and without delays.
+     *
+     * @param slots - the slots to replace the cards in.
+     * @param cards - the cards to place in the slots respectively (-1 to leave the slot empty).
+     */
+    void replaceCards(int[] slots, int[] cards) {
+        lock.lock();
         try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {
+            int removed = 0;
+            int[] removedSlots = new int[slots.length];
+            for (int slot : slots) {
+                if (this.slotToCard[slot] == null)
+                    continue;
+                takeCard(slot);
+                this.env.ui.removeTokens(slot);
+                removedSlots[removed++] = slot;
+            }
+            this.env.ui.removeCards(Arrays.copyOf(removedSlots, removed));
+
+            int placed = 0;
+            int[] placedCards = new int[slots.length];
+            int[] placedSlots = new int[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                if (cards[i] < 0)
+                    continue;
+                putCard(cards[i], slots[i]);
+                placedCards[placed] = cards[i];
+                placedSlots[placed++] = slots[i];
+            }
+            this.env.ui.placeCards(Arrays.copyOf(placedCards, placed), Arrays.copyOf(placedSlots, placed));
+        } finally {
+            lock.unlock();
         }
+    }
 
+    /**
+     * Runs a step of the dealer in one critical section of the table: no key press is applied to the table (and no
+     * token is placed or removed) until the step returns.
+     *
+     * @param step - the step (it may call the other methods of the table).
+     */
+    void exclusively(Runnable step) {
+        lock.lock();
+        try {
+            step.run();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -143,6 +440,7 @@ public class Table {
         int card = this.slotToCard[slot];
         this.slotToCard[slot] = null;
         this.cardToSlot[card] = null;
+        publishCard(slot, -1, card);
     }
 
     private void removeCardFromPlayerSet(int player, int card) {
@@ -156,6 +454,50 @@ public class Table {
         return playerCards.get(player);
     }
 
+    /**
+     * Copies the cards on the table and the players' tokens (for snapshots).
+     *
+     * @param slots  - filled with the card in every slot (-1 if none).
+     * @param tokens - filled with the cards every player has tokens on, in the order they were placed.
+     */
+    void copyState(int[] slots, int[][] tokens) {
+        lock.lock();
+        try {
+            for (int slot = 0; slot < slotToCard.length; slot++)
+                slots[slot] = slotToCard[slot] == null ? -1 : slotToCard[slot];
+            for (int player = 0; player < tokens.length; player++)
+                tokens[player] = playerCards.get(player).stream().mapToInt(Integer::intValue).toArray();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Places the cards and the players' tokens of a snapshot on an empty table (without delays).
+     *
+     * @param slots  - the card in every slot (-1 if none).
+     * @param tokens - the cards every player has tokens on, in the order they were placed.
+     */
+    void restore(int[] slots, int[][] tokens) {
+        lock.lock();
+        try {
+            for (int slot = 0; slot < slots.length; slot++) {
+                if (slots[slot] < 0)
+                    continue;
+                slotToCard[slot] = slots[slot];
+                cardToSlot[slots[slot]] = slot;
+                publishCard(slot, slots[slot], -1);
+                this.env.journal.record(GameJournal.DEAL, slot, -1, slots[slot]);
+                this.env.ui.placeCard(slots[slot], slot);
+            }
+            for (int player = 0; player < tokens.length; player++)
+                for (int card : tokens[player])
+                    placeToken(player, cardToSlot[card]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     ;
 
     /**
@@ -166,6 +508,7 @@ public class Table {
 
     public void removeCard(int slot) {
         this.lock.lock();
+        this.env.journal.record(GameJournal.REMOVE, slot, -1, this.slotToCard[slot]);
         this.env.ui.removeCard(slot);
         for (int player = 0; player < env.config.players; player++) {
             removeToken(player, slot);
@@ -173,13 +516,6 @@ public class Table {
 
         removeSlotMapping(slot);
         this.lock.unlock();
-
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-
-        } catch (InterruptedException ignored) {
-        }
-
     }
 
     /***
@@ -211,8 +547,10 @@ public class Table {
         }
         if (!selectedSlotsByPlayer[player][slot]) {
             this.playerCards.get(player).add(this.slotToCard[slot]);
+            this.env.journal.record(GameJournal.TOKEN_PLACED, slot, player, this.slotToCard[slot]);
             this.env.ui.placeToken(player, slot);
             selectedSlotsByPlayer[player][slot] = true;
+            publishToken(player, slot, true);
         }
     }
 
@@ -223,6 +561,7 @@ public class Table {
      */
     public void keyPressed(int player, int slot) {
         lock.lock();
+        this.env.journal.record(GameJournal.PRESS, slot, player, 0);
         if (!removeToken(player, slot)) {
             placeToken(player, slot);
         }
@@ -240,14 +579,25 @@ public class Table {
     public boolean removeToken(int player, int slot) {
         if (selectedSlotsByPlayer[player][slot]) {
             this.env.ui.removeToken(player, slot);
-            if (this.slotToCard[slot] == null) {
-                return false;
-            }
-            removeCardFromPlayerSet(player, this.slotToCard[slot]);
-            selectedSlotsByPlayer[player][slot] = false;
-            return true;
+            return dropToken(player, slot);
         }
 
         return false;
     }
+
+    /**
+     * Removes a token of a player from a grid slot (without updating the ui).
+     *
+     * @return - true iff a token was successfully removed.
+     */
+    private boolean dropToken(int player, int slot) {
+        if (this.slotToCard[slot] == null) {
+            return false;
+        }
+        removeCardFromPlayerSet(player, this.slotToCard[slot]);
+        selectedSlotsByPlayer[player][slot] = false;
+        this.env.journal.record(GameJournal.TOKEN_REMOVED, slot, player, this.slotToCard[slot]);
+        publishToken(player, slot, false);
+        return true;
+    }
 }
@@ -0,0 +1,42 @@
+package bguspl.set.ex;
+
+/**
+ * Receives the changes of a table, in order. Every change is stamped with the table version it created (see
+ * BoardSnapshot), so a listener can start from Table.subscribe()'s snapshot and apply the changes after it.
+ * <p>
+ * The listeners are called on the thread that changed the table, while it holds the table lock: they should only
+ * update their own state and return quickly.
+ */
+public interface TableListener {
+
+    /**
+     * A card was placed on the table.
+     *
+     * @param version - the table version after the change.
+     * @param card    - the card.
+     * @param slot    - the slot the card was placed in.
+     */
+    default void cardPlaced(long version, int card, int slot) {
+    }
+
+    /**
+     * A card was removed from the table (the tokens on it are removed before, see tokenChanged).
+     *
+     * @param version - the table version after the change.
+     * @param card    - the card.
+     * @param slot    - the slot the card was removed from.
+     */
+    default void cardRemoved(long version, int card, int slot) {
+    }
+
+    /**
+     * A player's token was placed or removed.
+     *
+     * @param version - the table version after the change.
+     * @param player  - the player.
+     * @param slot    - the slot.
+     * @param placed  - true iff the token was placed (false if it was removed).
+     */
+    default void tokenChanged(long version, int player, int slot, boolean placed) {
+    }
+}
@@ -0,0 +1,176 @@
+package bguspl.set.ex;
+
+import bguspl.set.UserInterface;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Shows the dealer's countdown (or the elapsed time) on the ui, from a thread of its own.
+ * <p>
+ * The dealer only publishes the time the countdown ends at (or the elapsed time is counted from), which is a volatile
+ * write. The display thread sleeps until the value shown would change, and pushes it to the ui only then: once a
+ * second, and every 10 milliseconds in the warning window (where hundredths of a second are shown).
+ */
+class TimerDisplay implements Runnable {
+
+    /**
+     * The value of a time that was not published.
+     */
+    private static final long NONE = Long.MIN_VALUE;
+
+    /**
+     * What the ui shows.
+     */
+    private static final int SHOWN_NOTHING = 0;
+    private static final int SHOWN_COUNTDOWN = 1;
+    private static final int SHOWN_WARNING = 2;
+    private static final int SHOWN_ELAPSED = 3;
+
+    private final UserInterface ui;
+
+    /**
+     * The remaining milliseconds below which the countdown is shown as a warning.
+     */
+    private final long warningMillis;
+
+    /**
+     * The time (System.currentTimeMillis()) the countdown ends at, or NONE.
+     */
+    private volatile long deadline = NONE;
+
+    /**
+     * The time (System.currentTimeMillis()) the elapsed time is counted from, or NONE.
+     */
+    private volatile long start = NONE;
+
+    private volatile boolean stopped;
+    private volatile Thread thread;
+
+    /**
+     * The kind and the units (seconds, hundredths in the warning window) of the last value pushed to the ui
+     * (accessed by the display thread only).
+     */
+    private int shownKind = SHOWN_NOTHING;
+    private long shownUnits;
+
+    /**
+     * @param ui            - the ui to show the time on.
+     * @param warningMillis - the remaining milliseconds below which the countdown is shown as a warning.
+     */
+    TimerDisplay(UserInterface ui, long warningMillis) {
+        this.ui = ui;
+        this.warningMillis = warningMillis;
+    }
+
+    /**
+     * Shows a countdown (called by the dealer thread, does not block).
+     *
+     * @param deadline - the time (System.currentTimeMillis()) the countdown ends at.
+     */
+    void countdown(long deadline) {
+        if (this.deadline == deadline && this.start == NONE)
+            return;
+        this.start = NONE;
+        this.deadline = deadline;
+        wake();
+    }
+
+    /**
+     * Shows the elapsed time (called by the dealer thread, does not block).
+     *
+     * @param start - the time (System.currentTimeMillis()) the elapsed time is counted from.
+     */
+    void elapsed(long start) {
+        if (this.start == start)
+            return;
+        this.deadline = NONE;
+        this.start = start;
+        wake();
+    }
+
+    private void wake() {
+        Thread thread = this.thread;
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    /**
+     * Starts the display thread.
+     */
+    void start() {
+        Thread thread = new Thread(this, "timer-display");
+        thread.setDaemon(true);
+        this.thread = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the display thread and waits for it to finish (the last value published is shown first).
+     */
+    void stop() {
+        Thread thread = this.thread;
+        if (thread == null)
+            return;
+        stopped = true;
+        LockSupport.unpark(thread);
+        while (thread.isAlive())
+            try {
+                thread.join();
+            } catch (InterruptedException ignored) {
+            }
+        this.thread = null;
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            long wait = show(System.currentTimeMillis());
+            if (stopped)
+                break;
+            if (wait < 0)
+                LockSupport.park(this);
+            else
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(wait));
+        }
+        show(System.currentTimeMillis());
+    }
+
+    /**
+     * Pushes the value to show at a time to the ui, if it differs from the value shown.
+     *
+     * @param now - the current time (System.currentTimeMillis()).
+     * @return - the milliseconds until the value shown changes next (-1 if it changes only when a new time is
+     *         published).
+     */
+    long show(long now) {
+        long start = this.start;
+        if (start != NONE) {
+            long elapsed = Math.max(0, now - start);
+            if (changed(SHOWN_ELAPSED, elapsed / 1000))
+                ui.setElapsed(elapsed);
+            return 1000 - elapsed % 1000;
+        }
+        long deadline = this.deadline;
+        if (deadline == NONE)
+            return -1;
+        long remaining = Math.max(0, deadline - now);
+        boolean warn = remaining < warningMillis;
+        if (changed(warn ? SHOWN_WARNING : SHOWN_COUNTDOWN, warn ? remaining / 10 : remaining / 1000))
+            ui.setCountdown(remaining, warn);
+        if (remaining == 0)
+            return -1;
+        if (warn)
+            return remaining % 10 + 1;
+        // the next second, or the start of the warning window if it comes first
+        return Math.min(remaining % 1000 + 1, remaining - warningMillis + 1);
+    }
+
+    private boolean changed(int kind, long units) {
+        if (kind == shownKind && units == shownUnits)
+            return false;
+        shownKind = kind;
+        shownUnits = units;
+        return true;
+    }
+}
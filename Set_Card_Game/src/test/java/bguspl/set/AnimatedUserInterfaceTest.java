@@ -0,0 +1,58 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnimatedUserInterfaceTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Logger logger;
+
+    private AnimatedUserInterface animated;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.put("TableDelaySeconds", "0.05");
+        animated = new AnimatedUserInterface(ui, new Config(logger, properties));
+    }
+
+    @Test
+    void isAnimating_untilLastFrameEnds() throws InterruptedException {
+        assertFalse(animated.isAnimating());
+        animated.placeCard(1, 0);
+        animated.placeCard(2, 1);
+        assertTrue(animated.isAnimating());
+        verify(ui, timeout(1000)).placeCard(2, 1);
+        Thread.sleep(100);
+        assertFalse(animated.isAnimating());
+    }
+
+    @Test
+    void changesShownInOrder() {
+        animated.placeCard(1, 0);
+        animated.placeToken(0, 0);
+        animated.removeCard(0);
+        animated.setScore(0, 1);
+
+        // the score is not delayed
+        verify(ui).setScore(0, 1);
+        InOrder order = inOrder(ui);
+        order.verify(ui, timeout(1000)).placeCard(1, 0);
+        order.verify(ui, timeout(1000)).placeToken(0, 0);
+        order.verify(ui, timeout(1000)).removeCard(0);
+    }
+}
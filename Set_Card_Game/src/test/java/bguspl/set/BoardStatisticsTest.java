@@ -0,0 +1,70 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardStatisticsTest {
+
+    private final Config config = new Config(Logger.getLogger("BoardStatisticsTest"), new Properties());
+    private final UtilImpl util = new UtilImpl(config);
+
+    @Test
+    void run_matchesKnownBoardProbabilities() throws InterruptedException {
+        BoardStatistics.Result result = new BoardStatistics(config, util).run(40_000, 200, 1, 2);
+
+        // every 3 cards are a set with probability 1/79, and about 1 in 30.6 boards of 12 cards has no set
+        assertEquals(40_000, result.boards);
+        assertEquals(220.0 / 79, result.setsPerBoard(), 0.05);
+        assertEquals(0.0327, result.setFreeProbability(), 0.006);
+
+        assertEquals(200, result.games);
+        assertEquals(0, result.stalledGames);
+        assertTrue(result.setsPerGame() > 15 && result.setsPerGame() <= 27);
+        assertTrue(result.cardsDealtPerGame() >= config.deckSize - 2 * config.tableSize);
+    }
+
+    @Test
+    void run_sameSeedSameResult() throws InterruptedException {
+        BoardStatistics statistics = new BoardStatistics(config, util);
+        BoardStatistics.Result first = statistics.run(1000, 20, 7, 2);
+        BoardStatistics.Result second = statistics.run(1000, 20, 7, 2);
+        assertEquals(first.boardSets, second.boardSets);
+        assertEquals(first.reshuffles, second.reshuffles);
+        assertEquals(first.setsCollected, second.setsCollected);
+    }
+
+    @Test
+    void countSets_matchesFindSets() {
+        // the default implementation, through findSets
+        Util boxed = new Util() {
+            @Override
+            public int[] cardToFeatures(int card) {
+                return util.cardToFeatures(card);
+            }
+
+            @Override
+            public int[][] cardsToFeatures(int[] cards) {
+                return util.cardsToFeatures(cards);
+            }
+
+            @Override
+            public boolean testSet(int[] cards) {
+                return util.testSet(cards);
+            }
+
+            @Override
+            public List<int[]> findSets(List<Integer> deck, int count) {
+                return util.findSets(deck, count);
+            }
+        };
+        int[] cards = {0, 1, 2, 3, 6, 9, 18, 27, 54, 80, 40, 13};
+        assertEquals(boxed.countSets(cards, cards.length, Integer.MAX_VALUE),
+                util.countSets(cards, cards.length, Integer.MAX_VALUE));
+        assertEquals(boxed.countSets(cards, 5, 2), util.countSets(cards, 5, 2));
+    }
+}
@@ -0,0 +1,65 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimLatencyTest {
+
+    private ClaimLatency latency;
+
+    @BeforeEach
+    void setUp() {
+        latency = new ClaimLatency();
+    }
+
+    @Test
+    void percentile_noSamples() {
+        assertEquals(0, latency.count(ClaimLatency.Stage.VERDICT));
+        assertEquals(0, latency.mean(ClaimLatency.Stage.VERDICT));
+        assertEquals(0, latency.percentile(ClaimLatency.Stage.VERDICT, 99));
+    }
+
+    @Test
+    void percentile_isTheUpperEdgeOfTheBucket() {
+        // 63 is the last value of the bucket [32, 64), 64 the first value of [64, 128)
+        latency.record(ClaimLatency.Stage.CLAIM_QUEUE, 63);
+        latency.record(ClaimLatency.Stage.CLAIM_QUEUE, 1000);
+        latency.record(ClaimLatency.Stage.VERDICT, 64);
+        latency.record(ClaimLatency.Stage.VERDICT, 1000);
+
+        assertEquals(64, latency.percentile(ClaimLatency.Stage.CLAIM_QUEUE, 50));
+        assertEquals(128, latency.percentile(ClaimLatency.Stage.VERDICT, 50));
+        // the upper edge is capped by the maximum
+        assertEquals(1000, latency.percentile(ClaimLatency.Stage.VERDICT, 100));
+    }
+
+    @Test
+    void percentile_ranksTheSamples() {
+        for (int i = 0; i < 1000; i++)
+            latency.record(ClaimLatency.Stage.WAKEUP, 100);
+        for (int i = 0; i < 10; i++)
+            latency.record(ClaimLatency.Stage.WAKEUP, 5000);
+
+        assertEquals(1010, latency.count(ClaimLatency.Stage.WAKEUP));
+        assertEquals(150_000 / 1010, latency.mean(ClaimLatency.Stage.WAKEUP));
+        assertEquals(5000, latency.max(ClaimLatency.Stage.WAKEUP));
+        assertEquals(128, latency.percentile(ClaimLatency.Stage.WAKEUP, 50));
+        // the 1000th sample is the last one of 100 ns, the 1005th is one of 5000 ns
+        assertEquals(128, latency.percentile(ClaimLatency.Stage.WAKEUP, 99));
+        assertEquals(5000, latency.percentile(ClaimLatency.Stage.WAKEUP, 99.5));
+        assertEquals(0, latency.count(ClaimLatency.Stage.VERDICT));
+    }
+
+    @Test
+    void record_extremeValues() {
+        latency.record(ClaimLatency.Stage.END_TO_END, -5);
+        assertEquals(0, latency.percentile(ClaimLatency.Stage.END_TO_END, 100));
+
+        latency.record(ClaimLatency.Stage.END_TO_END, Long.MAX_VALUE);
+        assertEquals(2, latency.count(ClaimLatency.Stage.END_TO_END));
+        assertEquals(0, latency.percentile(ClaimLatency.Stage.END_TO_END, 50));
+        assertEquals(Long.MAX_VALUE, latency.percentile(ClaimLatency.Stage.END_TO_END, 100));
+    }
+}
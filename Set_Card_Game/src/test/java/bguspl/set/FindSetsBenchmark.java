@@ -0,0 +1,71 @@
+package bguspl.set;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Measures how long it takes to find sets in large decks: the first set (as in Dealer.shouldFinish) and every set,
+ * with the pair lookup finder, and with a scan over every triple of cards where it finishes in reasonable time.
+ */
+public class FindSetsBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private static Config config(int featureCount) {
+        Properties properties = new Properties();
+        properties.setProperty("FeatureCount", Integer.toString(featureCount));
+        return new Config(Logger.getLogger("FindSetsBenchmark"), properties);
+    }
+
+    private static int triples(Util util, List<Integer> deck, int count) {
+        int sets = 0;
+        for (int i = 0; i < deck.size(); i++)
+            for (int j = i + 1; j < deck.size(); j++)
+                for (int k = j + 1; k < deck.size(); k++)
+                    if (util.testSet(new int[]{deck.get(i), deck.get(j), deck.get(k)}) && ++sets >= count)
+                        return sets;
+        return sets;
+    }
+
+    private static void measure(String name, int featureCount, java.util.function.IntSupplier run) {
+        long best = Long.MAX_VALUE;
+        int sets = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            sets = run.getAsInt();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("FeatureCount=%d %-22s sets=%-9d best=%.3f ms%n", featureCount, name, sets, best / 1e6);
+    }
+
+    /**
+     * @param args - the feature counts to measure (default 4 6 8).
+     */
+    public static void main(String[] args) {
+        int[] featureCounts = args.length == 0 ? new int[]{4, 6, 8} : new int[args.length];
+        for (int i = 0; i < args.length; i++)
+            featureCounts[i] = Integer.parseInt(args[i]);
+
+        for (int featureCount : featureCounts) {
+            Config config = config(featureCount);
+            UtilImpl util = new UtilImpl(config);
+            PairSetFinder finder = new PairSetFinder(config);
+            List<Integer> deck = new ArrayList<>(config.deckSize);
+            for (int card = 0; card < config.deckSize; card++)
+                deck.add(card);
+            Collections.shuffle(deck, new Random(featureCount));
+
+            measure("pairs, first set", featureCount, () -> finder.findSets(deck, 1).size());
+            measure("pairs, all sets", featureCount, () -> finder.findSets(deck, Integer.MAX_VALUE).size());
+            measure("parallel, all sets", featureCount, () -> util.findSetsParallel(deck, Integer.MAX_VALUE).size());
+            if (config.deckSize <= 729) {
+                measure("triples, first set", featureCount, () -> triples(util, deck, 1));
+                measure("triples, all sets", featureCount, () -> triples(util, deck, Integer.MAX_VALUE));
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GameEventEncoderTest {
+
+    GameEventEncoder encoder;
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private UserInterface replayed;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new GameEventEncoder(ui, 2, 3, 4, null);
+    }
+
+    @Test
+    void drain_empty() {
+        assertNull(encoder.drain());
+    }
+
+    @Test
+    void forwardsToWrappedUserInterface() {
+        encoder.placeCard(80, 11);
+        verify(ui).placeCard(80, 11);
+    }
+
+    @Test
+    void decode_roundTrip() {
+        encoder.placeCard(80, 11);
+        encoder.placeToken(3, 11);
+        encoder.setScore(3, 7);
+        encoder.setCountdown(1500, true);
+        encoder.removeToken(3, 11);
+        encoder.removeCard(11);
+        encoder.announceWinner(new int[]{1, 3});
+
+        GameEventDecoder decoder = new GameEventDecoder(replayed);
+        int decoded = 0;
+        ByteBuffer buffer;
+        while ((buffer = encoder.drain()) != null) {
+            decoded += decoder.decode(buffer);
+            encoder.release(buffer);
+        }
+
+        // the winners are sent one event per winner
+        assertEquals(8, decoded);
+        InOrder order = inOrder(replayed);
+        order.verify(replayed).placeCard(80, 11);
+        order.verify(replayed).placeToken(3, 11);
+        order.verify(replayed).setScore(3, 7);
+        order.verify(replayed).setCountdown(1500, true);
+        order.verify(replayed).removeToken(3, 11);
+        order.verify(replayed).removeCard(11);
+        order.verify(replayed).announceWinner(new int[]{1, 3});
+    }
+
+    @Test
+    void decode_leavesIncompleteEvent() {
+        encoder.setFreeze(1, 3000);
+        ByteBuffer buffer = encoder.drain();
+        buffer.limit(GameEventEncoder.EVENT_SIZE - 1);
+
+        assertEquals(0, new GameEventDecoder(replayed).decode(buffer));
+        assertEquals(GameEventEncoder.EVENT_SIZE - 1, buffer.remaining());
+    }
+
+    @Test
+    void setFreeze_encodesOnlyWhenTheShownSecondChanges() {
+        // a freeze is updated in a busy loop: thousands of updates, four shown seconds and the unfreeze
+        for (long millies = 3000; millies > 0; millies--)
+            encoder.setFreeze(1, millies);
+        encoder.setFreeze(1, 0);
+        encoder.setFreeze(1, 0);
+
+        int events = 0;
+        ByteBuffer buffer;
+        while ((buffer = encoder.drain()) != null) {
+            events += new GameEventDecoder(replayed).decode(buffer);
+            encoder.release(buffer);
+        }
+        assertEquals(5, events);
+        InOrder order = inOrder(replayed);
+        order.verify(replayed).setFreeze(1, 3000);
+        order.verify(replayed).setFreeze(1, 2999);
+        order.verify(replayed).setFreeze(1, 1999);
+        order.verify(replayed).setFreeze(1, 999);
+        order.verify(replayed).setFreeze(1, 0);
+        assertEquals(2, encoder.allocated());
+    }
+
+    @Test
+    void encode_dropsEventsWhenThePoolIsFull() {
+        // 3 buffers of 4 events, and nothing drained
+        for (int i = 0; i < 20; i++)
+            encoder.placeCard(i, 0);
+
+        assertEquals(3, encoder.allocated());
+        assertEquals(8, encoder.dropped());
+
+        // releasing a buffer lets events be encoded again
+        encoder.release(encoder.drain());
+        encoder.placeCard(20, 0);
+        assertEquals(8, encoder.dropped());
+        assertEquals(3, encoder.allocated());
+    }
+}
@@ -0,0 +1,103 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameHostTest {
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = Logger.getLogger("GameHostTest");
+        logger.setLevel(Level.OFF);
+    }
+
+    /**
+     * @return - the settings of a short game of two set seekers (no delays and no freezes).
+     */
+    static Config quickGame(Logger logger) {
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "0");
+        properties.put("ComputerPlayers", "2");
+        properties.put("ComputerStrategies", "set-seeker");
+        properties.put("ComputerDelaySeconds", "0.001");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("PointFreezeSeconds", "0");
+        properties.put("PenaltyFreezeSeconds", "0");
+        properties.put("TurnTimeoutSeconds", "0.2");
+        properties.put("TurnTimeoutWarningSeconds", "0");
+        return new Config(logger, properties);
+    }
+
+    @Test
+    void awaitAll_playsEveryGameToTheEnd() throws InterruptedException {
+        GameHost host = new GameHost(logger, 2);
+        Config config = quickGame(logger);
+        GameHost.Game[] games = new GameHost.Game[3];
+        for (int i = 0; i < games.length; i++)
+            games[i] = host.addGame(config, i);
+        host.awaitAll();
+
+        for (int i = 0; i < games.length; i++) {
+            assertEquals(i, games[i].id);
+            assertTrue(games[i].isDone());
+            assertTrue(games[i].durationMillis() > 0);
+            assertTrue(games[i].players[0].getScore() + games[i].players[1].getScore() > 0);
+        }
+        assertTrue(host.games().isEmpty());
+    }
+
+    @Test
+    void removeGame_dropsWaitingGamesAndTerminatesRunningOnes() throws InterruptedException {
+        // games of idle human players never end by themselves
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "2");
+        properties.put("TableDelaySeconds", "0");
+        Config config = new Config(logger, properties);
+        GameHost host = new GameHost(logger, 1);
+        GameHost.Game running = host.addGame(config, 1);
+        GameHost.Game waiting = host.addGame(config, 2);
+        GameHost.Game other = host.addGame(config, 3);
+        assertEquals(3, host.games().size());
+
+        assertTrue(host.removeGame(waiting.id));
+        assertFalse(host.removeGame(waiting.id));
+        waiting.await();
+        assertTrue(waiting.isDone());
+        assertEquals(0, waiting.durationMillis());
+
+        host.shutdown();
+        running.await();
+        other.await();
+        assertTrue(running.isDone());
+        assertTrue(other.isDone());
+        assertTrue(host.games().isEmpty());
+    }
+
+    @Test
+    void removeGame_rightAfterItStartsLeavesNoPlayerThreads() throws InterruptedException {
+        Config config = quickGame(logger);
+        GameHost host = new GameHost(logger, 4);
+        for (int i = 0; i < 20; i++)
+            host.removeGame(host.addGame(config, i).id);
+        host.awaitAll();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (playerThreads() > 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(0, playerThreads());
+    }
+
+    private static long playerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("player-") || thread.getName().startsWith("computer-"))
+                .count();
+    }
+}
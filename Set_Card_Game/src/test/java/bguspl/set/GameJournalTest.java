@@ -0,0 +1,72 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJournalTest {
+
+    /**
+     * Reads a journal into a list of {type, flag, slot, player, value} records.
+     */
+    private static List<long[]> readAll(Path directory) throws IOException {
+        List<long[]> records = new ArrayList<>();
+        long read = GameJournal.read(directory, (time, type, flag, slot, player, value) ->
+                records.add(new long[]{type, flag ? 1 : 0, slot, player, value}));
+        assertEquals(records.size(), read);
+        return records;
+    }
+
+    @Test
+    void read_roundTripAcrossSegments(@TempDir Path directory) throws IOException {
+        // 4 records per segment: 10 records take 3 segments
+        try (GameJournal journal = GameJournal.open(directory, 4 * GameJournal.RECORD_SIZE)) {
+            for (int i = 0; i < 10; i++)
+                journal.record(GameJournal.PRESS, i % 2 == 0, i, i + 100, Long.MAX_VALUE - i);
+        }
+
+        assertTrue(Files.exists(directory.resolve("journal-000002.bin")));
+        assertFalse(Files.exists(directory.resolve("journal-000003.bin")));
+        List<long[]> records = readAll(directory);
+        assertEquals(10, records.size());
+        for (int i = 0; i < 10; i++)
+            assertArrayEquals(new long[]{GameJournal.PRESS, i % 2 == 0 ? 1 : 0, i, i + 100, Long.MAX_VALUE - i},
+                    records.get(i));
+    }
+
+    @Test
+    void read_skipsIncompleteRecords(@TempDir Path directory) throws IOException {
+        try (GameJournal journal = GameJournal.open(directory, 4 * GameJournal.RECORD_SIZE)) {
+            for (int i = 0; i < 6; i++)
+                journal.record(GameJournal.CLAIM, -1, i, 0);
+        }
+        // the second record was reserved but its type was never written
+        try (FileChannel channel = FileChannel.open(directory.resolve("journal-000000.bin"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[1]), GameJournal.RECORD_SIZE + 8);
+        }
+
+        List<long[]> records = readAll(directory);
+        assertEquals(5, records.size());
+        assertEquals(0, records.get(0)[3]);
+        assertEquals(2, records.get(1)[3]);
+        assertEquals(5, records.get(4)[3]);
+    }
+
+    @Test
+    void disabled_recordsNothing() {
+        GameJournal journal = GameJournal.disabled();
+        assertFalse(journal.isEnabled());
+        journal.record(GameJournal.CLAIM, -1, 0, 0);
+        journal.close();
+    }
+}
@@ -0,0 +1,73 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PairSetFinderTest {
+
+    Config config;
+    Util util;
+    PairSetFinder finder;
+
+    @BeforeEach
+    void setUp() {
+        config = new Config(Logger.getLogger("PairSetFinderTest"), new Properties());
+        util = new UtilImpl(config);
+        finder = new PairSetFinder(config);
+    }
+
+    @Test
+    void thirdCard_completesSet() {
+        for (int first = 0; first < config.deckSize; first++)
+            for (int second = first + 1; second < config.deckSize; second++) {
+                int third = finder.thirdCard(first, second);
+                assertNotEquals(first, third);
+                assertNotEquals(second, third);
+                assertTrue(util.testSet(new int[]{first, second, third}));
+            }
+    }
+
+    @Test
+    void findSets_sameSetsAsTriples() {
+        List<Integer> deck = new ArrayList<>();
+        for (int card = 0; card < config.deckSize; card++)
+            deck.add(card);
+        Collections.shuffle(deck, new Random(1));
+        List<Integer> board = deck.subList(0, 15);
+
+        int expected = 0;
+        for (int i = 0; i < board.size(); i++)
+            for (int j = i + 1; j < board.size(); j++)
+                for (int k = j + 1; k < board.size(); k++)
+                    if (util.testSet(new int[]{board.get(i), board.get(j), board.get(k)}))
+                        expected++;
+
+        List<int[]> sets = finder.findSets(board, Integer.MAX_VALUE);
+        assertEquals(expected, sets.size());
+        for (int[] set : sets) {
+            assertTrue(util.testSet(set));
+            assertTrue(set[0] < set[1] && set[1] < set[2]);
+        }
+        int[] cards = board.stream().mapToInt(Integer::intValue).toArray();
+        assertEquals(expected, finder.countSets(cards, cards.length, finder.newPresenceBitmap(), Integer.MAX_VALUE));
+    }
+
+    @Test
+    void findSets_fullDeck() {
+        List<Integer> deck = new ArrayList<>();
+        for (int card = 0; card < config.deckSize; card++)
+            deck.add(card);
+        // every pair of the 81 cards belongs to exactly one set
+        assertEquals(81 * 80 / 6, finder.findSets(deck, Integer.MAX_VALUE).size());
+        assertEquals(1, finder.findSets(deck, 1).size());
+    }
+}
@@ -0,0 +1,71 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSetFinderTest {
+
+    Config config;
+    List<Integer> deck;
+    ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.setProperty("FeatureCount", "5");
+        config = new Config(Logger.getLogger("ParallelSetFinderTest"), properties);
+        deck = new ArrayList<>();
+        for (int card = 0; card < config.deckSize; card++)
+            deck.add(card);
+        Collections.shuffle(deck, new Random(5));
+        pool = new ForkJoinPool(4);
+    }
+
+    private static Set<String> asStrings(List<int[]> sets) {
+        Set<String> strings = new TreeSet<>();
+        for (int[] set : sets)
+            assertTrue(strings.add(Arrays.toString(set)));
+        return strings;
+    }
+
+    @Test
+    void findSets_sameSetsAsSequential() {
+        PairSetFinder finder = new PairSetFinder(config);
+        List<int[]> sequential = finder.findSets(deck, Integer.MAX_VALUE);
+        List<int[]> parallel = new ParallelSetFinder<>(finder, pool).findSets(deck, Integer.MAX_VALUE);
+        // every pair of cards belongs to exactly one set
+        assertEquals(config.deckSize * (config.deckSize - 1) / 6, parallel.size());
+        assertEquals(asStrings(sequential), asStrings(parallel));
+    }
+
+    @Test
+    void findSets_prunedSameSetsAsSequential() {
+        PrunedSetFinder finder = new PrunedSetFinder(config);
+        assertEquals(asStrings(finder.findSets(deck, Integer.MAX_VALUE)),
+                asStrings(new ParallelSetFinder<>(finder, pool).findSets(deck, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void findSets_stopsAtCount() {
+        Util util = new UtilImpl(config);
+        ParallelSetFinder<?> finder = new ParallelSetFinder<>(new PairSetFinder(config), pool);
+        for (int count : new int[]{1, 7, 1000}) {
+            List<int[]> sets = finder.findSets(deck, count);
+            assertEquals(count, sets.size());
+            sets.forEach(set -> assertTrue(util.testSet(set)));
+        }
+    }
+}
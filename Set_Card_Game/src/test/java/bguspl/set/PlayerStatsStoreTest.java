@@ -0,0 +1,88 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerStatsStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void commit_addsToRecordsAcrossReopens() throws IOException {
+        Path file = directory.resolve("stats.bin");
+        String[] names = {"Meni", "Marina"};
+
+        try (PlayerStatsStore store = PlayerStatsStore.open(file)) {
+            PlayerStatsStore.Tally tally = store.tally(names);
+            tally.verdict(0, GameJournal.VERDICT_POINT, 2_000_000);
+            tally.verdict(1, GameJournal.VERDICT_PENALTY, 4_000_000);
+            store.commit(tally);
+            tally.verdict(0, GameJournal.VERDICT_VOID, 4_000_000);
+            tally.gameOver();
+            store.commit(tally);
+
+            PlayerStatsStore.Stats meni = store.get("Meni");
+            assertEquals(1, meni.points);
+            assertEquals(2, meni.claims);
+            assertEquals(3.0, meni.averageLatencyMillis(), 1e-9);
+            assertEquals(1, meni.games);
+        }
+
+        try (PlayerStatsStore store = PlayerStatsStore.open(file)) {
+            PlayerStatsStore.Tally tally = store.tally(new String[]{"Marina"});
+            tally.gameOver();
+            store.commit(tally);
+
+            PlayerStatsStore.Stats marina = store.get("Marina");
+            assertEquals(0, marina.points);
+            assertEquals(1, marina.penalties);
+            assertEquals(2, marina.games);
+            assertEquals(1, store.get("Meni").points);
+            assertEquals(0, store.get("Nobody").games);
+        }
+    }
+
+    @Test
+    void commit_growsTheFile() throws IOException {
+        Path file = directory.resolve("stats.bin");
+        String[] names = new String[100];
+        for (int i = 0; i < names.length; i++)
+            names[i] = "Bot " + i;
+
+        try (PlayerStatsStore store = PlayerStatsStore.open(file)) {
+            PlayerStatsStore.Tally tally = store.tally(names);
+            tally.gameOver();
+            store.commit(tally);
+        }
+        try (PlayerStatsStore store = PlayerStatsStore.open(file)) {
+            for (String name : names)
+                assertEquals(1, store.get(name).games);
+        }
+    }
+
+    @Test
+    void commit_growsAFileWithNoRecords() throws IOException {
+        Path file = directory.resolve("stats.bin");
+        // just the header: the magic number and no records
+        ByteBuffer header = ByteBuffer.allocate(PlayerStatsStore.HEADER_SIZE).putInt(PlayerStatsStore.MAGIC);
+        Files.write(file, header.array());
+
+        try (PlayerStatsStore store = PlayerStatsStore.open(file)) {
+            PlayerStatsStore.Tally tally = store.tally(new String[]{"Meni", "Marina", "Bot"});
+            tally.gameOver();
+            store.commit(tally);
+        }
+        try (PlayerStatsStore store = PlayerStatsStore.open(file)) {
+            assertEquals(1, store.get("Meni").games);
+            assertEquals(1, store.get("Bot").games);
+        }
+    }
+}
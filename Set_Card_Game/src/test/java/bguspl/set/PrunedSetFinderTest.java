@@ -0,0 +1,65 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrunedSetFinderTest {
+
+    private static Config config(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.setProperty("FeatureSize", Integer.toString(featureSize));
+        properties.setProperty("FeatureCount", Integer.toString(featureCount));
+        return new Config(Logger.getLogger("PrunedSetFinderTest"), properties);
+    }
+
+    private static List<Integer> shuffledDeck(Config config, int size) {
+        List<Integer> deck = new ArrayList<>();
+        for (int card = 0; card < config.deckSize; card++)
+            deck.add(card);
+        Collections.shuffle(deck, new Random(size));
+        return new ArrayList<>(deck.subList(0, size));
+    }
+
+    private static int countCombinations(Util util, List<Integer> cards, int[] combination, int depth, int from) {
+        if (depth == combination.length)
+            return util.testSet(combination.clone()) ? 1 : 0;
+        int sets = 0;
+        for (int i = from; i < cards.size(); i++) {
+            combination[depth] = cards.get(i);
+            sets += countCombinations(util, cards, combination, depth + 1, i + 1);
+        }
+        return sets;
+    }
+
+    @Test
+    void findSets_sameSetsAsEveryCombination() {
+        for (int featureSize = 3; featureSize <= 5; featureSize++) {
+            Config config = config(featureSize, 3);
+            Util util = new UtilImpl(config);
+            List<Integer> cards = shuffledDeck(config, 20);
+
+            List<int[]> sets = new PrunedSetFinder(config).findSets(cards, Integer.MAX_VALUE);
+            assertEquals(countCombinations(util, cards, new int[featureSize], 0, 0), sets.size());
+            for (int[] set : sets) {
+                assertEquals(featureSize, set.length);
+                assertTrue(util.testSet(set));
+            }
+        }
+    }
+
+    @Test
+    void findSets_stopsAtCount() {
+        Config config = config(4, 3);
+        List<Integer> cards = shuffledDeck(config, config.deckSize);
+        assertEquals(1, new PrunedSetFinder(config).findSets(cards, 1).size());
+        assertEquals(5, new PrunedSetFinder(config).findSets(cards, 5).size());
+    }
+}
@@ -0,0 +1,81 @@
+package bguspl.set;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RenderLoopTest {
+
+    @Mock
+    private UserInterface screen;
+
+    private RenderLoop render;
+    private Table table;
+    private Dealer dealer;
+
+    @BeforeEach
+    void setUp() {
+        Logger logger = Logger.getLogger("RenderLoopTest");
+        Properties properties = new Properties();
+        properties.put("Rows", "2");
+        properties.put("Columns", "2");
+        properties.put("HumanPlayers", "2");
+        properties.put("FrameRate", "30");
+        Config config = new Config(logger, properties);
+        render = new RenderLoop(screen, config);
+        Env env = new Env(logger, config, render, new UtilImpl(config));
+        table = new Table(env);
+        dealer = new Dealer(env, table, new Player[config.players]);
+        render.attach(table, dealer);
+    }
+
+    @Test
+    void render_pushesOnlyTheChangesSinceTheLastFrame() {
+        // the game threads' updates are not pushed to the screen
+        table.placeCard(5, 0);
+        table.placeCard(6, 1);
+        table.placeCard(7, 2);
+        table.placeToken(1, 2);
+        verifyNoInteractions(screen);
+
+        render.render();
+        InOrder order = inOrder(screen);
+        order.verify(screen).placeCards(new int[]{5, 6, 7}, new int[]{0, 1, 2});
+        order.verify(screen).placeToken(1, 2);
+
+        render.render();
+        verifyNoMoreInteractions(screen);
+
+        // many changes between two frames are one diff
+        table.removeToken(1, 2);
+        table.removeCard(2);
+        table.placeCard(8, 2);
+        table.removeCard(0);
+        dealer.scoreboard().reset(new int[]{0, 3});
+        render.setCountdown(1500, true);
+        render.render();
+        order.verify(screen).removeToken(1, 2);
+        order.verify(screen).removeCards(new int[]{0});
+        order.verify(screen).placeCards(new int[]{8}, new int[]{2});
+        verify(screen).setScore(1, 3);
+        verify(screen).setCountdown(1500, true);
+
+        render.announceWinner(new int[]{1});
+        render.render();
+        render.render();
+        verify(screen).announceWinner(new int[]{1});
+        verifyNoMoreInteractions(screen);
+    }
+}
@@ -0,0 +1,35 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupProfilerTest {
+
+    @Test
+    void phase_recordedInOrder() {
+        StartupProfiler profiler = new StartupProfiler();
+        profiler.phase("config");
+        profiler.phase("window");
+
+        Map<String, Long> phases = profiler.phases();
+        assertEquals(Arrays.asList("config", "window"), Arrays.asList(phases.keySet().toArray()));
+        for (long nanos : phases.values())
+            assertTrue(nanos >= 0);
+    }
+
+    @Test
+    void milestone_recordedOnlyTheFirstTime() throws InterruptedException {
+        StartupProfiler profiler = new StartupProfiler();
+        profiler.milestone("first deal");
+        long first = profiler.milestones().get("first deal");
+        Thread.sleep(5);
+        profiler.milestone("first deal");
+
+        assertEquals(first, profiler.milestones().get("first deal"));
+        assertTrue(profiler.summary().contains("first deal="));
+    }
+}
@@ -0,0 +1,86 @@
+package bguspl.set;
+
+import bguspl.set.ex.ComputerStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = Logger.getLogger("TournamentTest");
+        logger.setLevel(Level.OFF);
+    }
+
+    @Test
+    void play_aggregatesPerStrategy() throws InterruptedException {
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "0");
+        properties.put("ComputerPlayers", "2");
+        properties.put("ComputerStrategies", "set-seeker, random");
+        properties.put("ComputerDelaySeconds", "0.001");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("PointFreezeSeconds", "0");
+        properties.put("PenaltyFreezeSeconds", "0");
+        properties.put("TurnTimeoutSeconds", "0.2");
+        properties.put("TurnTimeoutWarningSeconds", "0");
+        GameHost host = new GameHost(logger, 2);
+        Tournament tournament = new Tournament();
+        tournament.play(host, new Config(logger, properties), 3, 7, 2);
+        host.awaitAll();
+
+        Map<ComputerStrategy, Tournament.StrategyResult> results = tournament.results();
+        Tournament.StrategyResult seeker = results.get(ComputerStrategy.SET_SEEKER);
+        Tournament.StrategyResult random = results.get(ComputerStrategy.RANDOM);
+        assertEquals(3, seeker.playerGames);
+        assertEquals(3, random.playerGames);
+        assertTrue(seeker.points > random.points);
+        assertEquals((double) (seeker.points + random.points) / 3, tournament.setsPerGame(), 1e-9);
+        assertEquals(seeker.wins / 3.0, seeker.winRate(), 1e-9);
+        assertTrue(tournament.averageGameSeconds() > 0);
+
+        StringWriter csv = new StringWriter();
+        tournament.writeCsv(new PrintWriter(csv, true));
+        String[] lines = csv.toString().split("\\R");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("strategy,player_games,wins,"));
+        assertTrue(lines[1].startsWith("random,3,"));
+        assertTrue(lines[2].startsWith("set_seeker,3,"));
+        assertTrue(lines[3].startsWith("all,,,,"));
+
+        StringWriter json = new StringWriter();
+        tournament.writeJson(new PrintWriter(json, true));
+        assertTrue(json.toString().startsWith("{\"games\": 3, "));
+        assertTrue(json.toString().contains("\"set_seeker\": {\"player_games\": 3, "));
+        assertTrue(json.toString().trim().endsWith("}}"));
+    }
+
+    @Test
+    void add_nobodyWinsAGameWithoutPoints() throws InterruptedException {
+        // a game of idle players, removed before anybody scored
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "2");
+        properties.put("TableDelaySeconds", "0");
+        GameHost host = new GameHost(logger, 1);
+        GameHost.Game game = host.addGame(new Config(logger, properties), 1);
+        host.shutdown();
+        game.await();
+
+        Tournament tournament = new Tournament();
+        tournament.add(game);
+        Tournament.StrategyResult result = tournament.results().get(ComputerStrategy.RANDOM);
+        assertEquals(2, result.playerGames);
+        assertEquals(0, result.wins);
+    }
+}
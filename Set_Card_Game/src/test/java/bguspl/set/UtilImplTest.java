@@ -0,0 +1,92 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UtilImplTest {
+
+    private static Config config(int featureSize) {
+        Properties properties = new Properties();
+        properties.setProperty("FeatureSize", Integer.toString(featureSize));
+        return new Config(Logger.getLogger("UtilImplTest"), properties);
+    }
+
+    /**
+     * The sets of a board as found by testing every combination of cards, the way findSets originally worked.
+     */
+    private static Set<List<Integer>> bruteForce(Util util, List<Integer> board, int[] combination, int depth, int from,
+                                                 Set<List<Integer>> sets) {
+        if (depth == combination.length) {
+            if (util.testSet(combination.clone()))
+                sets.add(sorted(combination));
+            return sets;
+        }
+        for (int i = from; i < board.size(); i++) {
+            combination[depth] = board.get(i);
+            bruteForce(util, board, combination, depth + 1, i + 1, sets);
+        }
+        return sets;
+    }
+
+    private static List<Integer> sorted(int[] cards) {
+        List<Integer> set = new ArrayList<>();
+        Arrays.stream(cards).sorted().forEach(set::add);
+        return set;
+    }
+
+    private static void assertSameSetsAsBruteForce(int featureSize, int boards) {
+        Config config = config(featureSize);
+        Util util = new UtilImpl(config);
+        List<Integer> deck = new ArrayList<>();
+        for (int card = 0; card < config.deckSize; card++)
+            deck.add(card);
+        Random random = new Random(featureSize);
+        for (int i = 0; i < boards; i++) {
+            Collections.shuffle(deck, random);
+            List<Integer> board = new ArrayList<>(deck.subList(0, 3 + random.nextInt(16)));
+
+            Set<List<Integer>> expected = bruteForce(util, board, new int[featureSize], 0, 0, new HashSet<>());
+            Set<List<Integer>> found = new HashSet<>();
+            for (int[] set : util.findSets(board, Integer.MAX_VALUE))
+                assertTrue(found.add(sorted(set)), "a set was found twice on " + board);
+            assertEquals(expected, found, "on " + board);
+            Set<List<Integer>> parallel = new HashSet<>();
+            util.findSetsParallel(board, Integer.MAX_VALUE).forEach(set -> parallel.add(sorted(set)));
+            assertEquals(expected, parallel, "on " + board);
+        }
+    }
+
+    @Test
+    void findSets_sameSetsAsBruteForceOnRandomBoards() {
+        assertSameSetsAsBruteForce(3, 500);
+    }
+
+    @Test
+    void findSets_sameSetsAsBruteForceOnRandomBoardsOfLargerSets() {
+        assertSameSetsAsBruteForce(4, 200);
+    }
+
+    @Test
+    void findSets_countBelowOneFindsOneSet() {
+        Config config = config(3);
+        Util util = new UtilImpl(config);
+        List<Integer> deck = new ArrayList<>();
+        for (int card = 0; card < config.deckSize; card++)
+            deck.add(card);
+
+        assertEquals(1, util.findSets(deck, 0).size());
+        assertEquals(1, util.findSets(deck, -1).size());
+        assertEquals(1, util.findSetsParallel(deck, 0).size());
+    }
+}
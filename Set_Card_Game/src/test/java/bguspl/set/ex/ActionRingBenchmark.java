@@ -0,0 +1,82 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Measures the hand-off of key presses from an input thread to a player thread: the ActionRing against the
+ * ArrayBlockingQueue the players used before (with the synchronized size check of the old keyPressed).
+ */
+public class ActionRingBenchmark {
+
+    private static final int CAPACITY = 3;
+
+    private interface Handoff {
+        boolean press(int slot);
+
+        int take() throws InterruptedException;
+    }
+
+    private static Handoff ring() {
+        ActionRing ring = new ActionRing(CAPACITY);
+        return new Handoff() {
+            @Override
+            public boolean press(int slot) {
+                return ring.offer(slot);
+            }
+
+            @Override
+            public int take() throws InterruptedException {
+                return ring.take();
+            }
+        };
+    }
+
+    private static Handoff queue() {
+        BlockingQueue<Integer> queue = new ArrayBlockingQueue<>(CAPACITY);
+        return new Handoff() {
+            @Override
+            public synchronized boolean press(int slot) {
+                if (queue.size() >= CAPACITY)
+                    return false;
+                queue.add(slot);
+                return true;
+            }
+
+            @Override
+            public int take() throws InterruptedException {
+                return queue.take();
+            }
+        };
+    }
+
+    /**
+     * @return - the nanoseconds per action handed off.
+     */
+    private static double measure(Handoff handoff, int actions) throws InterruptedException {
+        Thread consumer = new Thread(() -> {
+            try {
+                for (int i = 0; i < actions; i++)
+                    handoff.take();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        long start = System.nanoTime();
+        consumer.start();
+        for (int i = 0; i < actions; i++)
+            while (!handoff.press(i % 12))
+                Thread.yield();
+        consumer.join();
+        return (System.nanoTime() - start) / (double) actions;
+    }
+
+    /**
+     * @param args - the number of actions per round (default 2000000).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int actions = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        for (int round = 0; round < 5; round++)
+            System.out.printf("round %d: ring %.1f ns/action, queue %.1f ns/action%n",
+                    round, measure(ring(), actions), measure(queue(), actions));
+    }
+}
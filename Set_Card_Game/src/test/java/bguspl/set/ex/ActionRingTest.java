@@ -0,0 +1,91 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionRingTest {
+
+    @Test
+    void offer_dropsWhenFull() {
+        ActionRing ring = new ActionRing(3);
+        assertTrue(ring.offer(4));
+        assertTrue(ring.offer(5));
+        assertTrue(ring.offer(6));
+        assertFalse(ring.offer(7));
+        assertEquals(3, ring.size());
+
+        assertEquals(4, ring.poll());
+        assertTrue(ring.offer(8));
+        assertEquals(5, ring.poll());
+        assertEquals(6, ring.poll());
+        assertEquals(8, ring.poll());
+        assertEquals(-1, ring.poll());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void clear_dropsAllActions() {
+        ActionRing ring = new ActionRing(3);
+        ring.offer(1);
+        ring.offer(2);
+        ring.clear();
+        assertEquals(0, ring.size());
+        assertEquals(-1, ring.poll());
+    }
+
+    @Test
+    void take_waitsForProducer() throws InterruptedException {
+        ActionRing ring = new ActionRing(3);
+        Thread producer = new Thread(() -> {
+            for (int slot = 0; slot < 1000; slot++)
+                while (!ring.offer(slot))
+                    Thread.yield();
+        });
+        producer.start();
+        for (int slot = 0; slot < 1000; slot++)
+            assertEquals(slot, ring.take());
+        producer.join();
+    }
+
+    @Test
+    void take_returnsWhenWokenUp() throws InterruptedException {
+        ActionRing ring = new ActionRing(3);
+        // a wake up before the consumer waits is not lost
+        ring.wakeUp();
+        assertEquals(-1, ring.take());
+
+        AtomicInteger taken = new AtomicInteger(0);
+        Thread consumer = new Thread(() -> {
+            try {
+                taken.set(ring.take());
+            } catch (InterruptedException ignored) {
+            }
+        });
+        consumer.start();
+        ring.wakeUp();
+        consumer.join(5000);
+        assertFalse(consumer.isAlive());
+        assertEquals(-1, taken.get());
+    }
+
+    @Test
+    void take_interrupted() throws InterruptedException {
+        ActionRing ring = new ActionRing(3);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread consumer = new Thread(() -> {
+            try {
+                ring.take();
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+        consumer.start();
+        consumer.interrupt();
+        consumer.join(1000);
+        assertTrue(interrupted.get());
+    }
+}
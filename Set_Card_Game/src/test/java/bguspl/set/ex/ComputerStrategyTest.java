@@ -0,0 +1,61 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.HeadlessUserInterface;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComputerStrategyTest {
+
+    private Env env;
+
+    @BeforeEach
+    void setUp() {
+        Logger logger = Logger.getLogger("ComputerStrategyTest");
+        Properties properties = new Properties();
+        properties.put("Rows", "2");
+        properties.put("Columns", "2");
+        properties.put("HumanPlayers", "0");
+        properties.put("ComputerPlayers", "1");
+        Config config = new Config(logger, properties);
+        env = new Env(logger, config, new HeadlessUserInterface(), new UtilImpl(config));
+    }
+
+    @Test
+    void of_acceptsConfigNames() {
+        assertEquals(ComputerStrategy.SET_SEEKER, ComputerStrategy.of(" set-seeker"));
+        assertEquals(ComputerStrategy.RANDOM, ComputerStrategy.of("Random"));
+        assertThrows(IllegalArgumentException.class, () -> ComputerStrategy.of("cheater"));
+    }
+
+    @Test
+    void setSeeker_removesOtherTokensThenPressesTheSet() {
+        // cards 0, 1 and 2 are a set, card 4 is not in it
+        BoardSnapshot board = BoardSnapshot.empty(1, 4)
+                .withCard(0, 4).withCard(1, 0).withCard(2, 1).withCard(3, 2)
+                .withToken(0, 0, true).withToken(0, 1, true);
+
+        assertEquals(0, ComputerStrategy.SET_SEEKER.nextSlot(env, board, 0));
+        board = board.withToken(0, 0, false);
+        assertEquals(2, ComputerStrategy.SET_SEEKER.nextSlot(env, board, 0));
+        board = board.withToken(0, 2, true).withToken(0, 3, true);
+        assertEquals(-1, ComputerStrategy.SET_SEEKER.nextSlot(env, board, 0));
+    }
+
+    @Test
+    void setSeeker_waitsWhenThereIsNoSet() {
+        // cards 0, 1 and 4 are not a set
+        BoardSnapshot board = BoardSnapshot.empty(1, 4).withCard(0, 0).withCard(1, 1).withCard(2, 4)
+                .withToken(0, 2, true);
+
+        assertEquals(2, ComputerStrategy.SET_SEEKER.nextSlot(env, board, 0));
+        assertEquals(-1, ComputerStrategy.SET_SEEKER.nextSlot(env, board.withToken(0, 2, false), 0));
+    }
+}
@@ -2,8 +2,10 @@ package bguspl.set.ex;
 
 import bguspl.set.Config;
 import bguspl.set.Env;
+import bguspl.set.HeadlessUserInterface;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
+import bguspl.set.UtilImpl;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,9 @@ import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -76,30 +81,108 @@ class DealerTest {
         //
         Dealer spiedDealer=Mockito.spy(dealer);
 
-        // assume player have different ids
-        when(player1.getId()).thenReturn(0);
-        when(player2.getId()).thenReturn(1);
-
         // assume players have same score
-        when(player1.getScore()).thenReturn(10);
-        when(player2.getScore()).thenReturn(10);
+        spiedDealer.scoreboard().reset(new int[]{10, 10});
 
         spiedDealer.run();
         verify(ui).announceWinner(new int[]{0,1});
 
         // assume players have different score (first has larger score)
         spiedDealer=Mockito.spy(dealer);
-        when(player1.getScore()).thenReturn(1);
-        when(player2.getScore()).thenReturn(0);
+        spiedDealer.scoreboard().reset(new int[]{1, 0});
         spiedDealer.run();
         verify(ui).announceWinner(new int[]{0});
 
         // assume players have different score (second has larger score)
         spiedDealer=Mockito.spy(dealer);
-        when(player1.getScore()).thenReturn(0);
-        when(player2.getScore()).thenReturn(1);
+        spiedDealer.scoreboard().reset(new int[]{0, 1});
         spiedDealer.run();
         verify(ui).announceWinner(new int[]{1});
     }
 
-}
\ No newline at end of file
+    @Test
+    void removeCardsFromTable_batchResolvesByArrivalOrder() {
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "3");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("BatchClaims", "True");
+        Config config = new Config(logger, properties);
+        Env env = new Env(logger, config, new HeadlessUserInterface(), new UtilImpl(config));
+        Table table = new Table(env);
+        Player[] players = new Player[config.players];
+        Dealer dealer = new Dealer(env, table, players, 7);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, true);
+        dealer.shuffleDeck();
+        dealer.placeCardsOnTable();
+
+        int[] set = env.util.findSets(table.getTableCards(), 1).get(0);
+        List<Integer> others = new ArrayList<>(table.getTableCards());
+        for (int card : set)
+            others.remove(Integer.valueOf(card));
+        int[] notSet = null;
+        for (int i = 0; notSet == null; i++)
+            if (!env.util.testSet(new int[]{others.get(i), others.get(i + 1), others.get(i + 2)}))
+                notSet = new int[]{others.get(i), others.get(i + 1), others.get(i + 2)};
+
+        // two players claim the same set, a third player claims other cards that are not a set
+        for (int card : set) {
+            table.keyPressed(0, table.cardToSlot[card]);
+            table.keyPressed(1, table.cardToSlot[card]);
+        }
+        for (int card : notSet)
+            table.keyPressed(2, table.cardToSlot[card]);
+        for (Player player : players)
+            dealer.claimSet(player);
+        dealer.removeCardsFromTable();
+
+        assertEquals(1, players[0].getScore());
+        assertEquals(Player.PlayerState.SCORED, players[0].getPlayerState());
+        assertEquals(0, players[1].getScore());
+        assertEquals(Player.PlayerState.INIT, players[1].getPlayerState());
+        assertEquals(Player.PlayerState.PENALIZED, players[2].getPlayerState());
+        assertTrue(table.getPlayerCards(2).isEmpty());
+        assertEquals(config.tableSize, table.countCards());
+        for (int card : set)
+            assertNull(table.cardToSlot[card]);
+    }
+
+    @Test
+    void removeCardsFromTable_validatorsCommitInArrivalOrder() throws InterruptedException {
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "2");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("ClaimValidators", "2");
+        Config config = new Config(logger, properties);
+        Env env = new Env(logger, config, new HeadlessUserInterface(), new UtilImpl(config));
+        Table table = new Table(env);
+        Player[] players = new Player[config.players];
+        Dealer dealer = new Dealer(env, table, players, 11);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, true);
+        try {
+            dealer.shuffleDeck();
+            dealer.placeCardsOnTable();
+
+            // both players claim the same set: the first claim scores, whichever validator finishes first, and the
+            // second claim is void (its cards are gone)
+            int[] set = env.util.findSets(table.getTableCards(), 1).get(0);
+            for (int card : set) {
+                table.keyPressed(0, table.cardToSlot[card]);
+                table.keyPressed(1, table.cardToSlot[card]);
+            }
+            dealer.claimSet(players[0]);
+            dealer.claimSet(players[1]);
+            dealer.awaitValidations();
+            dealer.removeCardsFromTable();
+
+            assertEquals(1, players[0].getScore());
+            assertEquals(0, players[1].getScore());
+            assertNotEquals(Player.PlayerState.PENALIZED, players[1].getPlayerState());
+            for (int card : set)
+                assertNull(table.cardToSlot[card]);
+        } finally {
+            dealer.shutdownValidators();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameReplayTest {
+
+    /**
+     * Records a game of many computer players (so claims overlap and other players press keys meanwhile) into small
+     * journal segments, and checks it replays with the same verdicts and scores.
+     */
+    private static void assertReplays(Path journal, Properties properties) throws IOException, InterruptedException {
+        RecordedGames.record(journal, 1 << 16, properties, 1500, dealer -> {
+        });
+
+        // the game is replayed across segments
+        assertTrue(Files.exists(journal.resolve("journal-000001.bin")));
+        GameReplay replay = RecordedGames.replay(journal, properties);
+        assertTrue(replay.verdicts() > 0);
+        assertEquals(Collections.emptyList(), replay.mismatches());
+    }
+
+    @Test
+    void replay_sequentialClaims(@TempDir Path journal) throws IOException, InterruptedException {
+        assertReplays(journal, RecordedGames.settings(40));
+    }
+
+    @Test
+    void replay_validatedClaims(@TempDir Path journal) throws IOException, InterruptedException {
+        Properties properties = RecordedGames.settings(40);
+        properties.put("ClaimValidators", "2");
+        assertReplays(journal, properties);
+    }
+
+    @Test
+    void replay_batchedClaims(@TempDir Path journal) throws IOException, InterruptedException {
+        Properties properties = RecordedGames.settings(40);
+        properties.put("BatchClaims", "True");
+        assertReplays(journal, properties);
+    }
+}
@@ -0,0 +1,168 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.HeadlessUserInterface;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameSnapshotTest {
+
+    @Mock
+    private Logger logger;
+
+    private Config config;
+    private Table table;
+    private Dealer dealer;
+    private Player[] players;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "2");
+        properties.put("ComputerPlayers", "0");
+        properties.put("TableDelaySeconds", "0");
+        config = new Config(logger, properties);
+
+        players = new Player[config.players];
+        table = new Table(newEnv());
+        dealer = newGame(table, players, 42);
+    }
+
+    private Env newEnv() {
+        return new Env(logger, config, new HeadlessUserInterface(), new UtilImpl(config));
+    }
+
+    private Dealer newGame(Table table, Player[] players, long seed) {
+        Env env = newEnv();
+        Dealer dealer = new Dealer(env, table, players, seed);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, true);
+        return dealer;
+    }
+
+    private GameSnapshot roundTrip(GameSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot.write(Channels.newChannel(out));
+        return GameSnapshot.read(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    void restore_sameState() throws IOException {
+        dealer.shuffleDeck();
+        dealer.placeCardsOnTable();
+        table.keyPressed(0, 0);
+        table.keyPressed(0, 3);
+        table.keyPressed(1, 5);
+        players[1].point();
+
+        GameSnapshot snapshot = roundTrip(dealer.snapshot());
+
+        Player[] restoredPlayers = new Player[config.players];
+        Table restoredTable = new Table(newEnv());
+        Dealer restoredDealer = newGame(restoredTable, restoredPlayers, 0);
+        restoredDealer.restore(snapshot);
+
+        assertArrayEquals(table.slotToCard, restoredTable.slotToCard);
+        assertArrayEquals(table.cardToSlot, restoredTable.cardToSlot);
+        assertEquals(dealer.deckSize(), restoredDealer.deckSize());
+        for (int i = 0; i < players.length; i++) {
+            assertEquals(table.getPlayerCards(i), restoredTable.getPlayerCards(i));
+            assertEquals(players[i].getScore(), restoredPlayers[i].getScore());
+        }
+
+        // the original and the restored game continue with the same shuffles
+        dealer.removeAllCardsFromTable();
+        restoredDealer.removeAllCardsFromTable();
+        dealer.shuffleDeck();
+        restoredDealer.shuffleDeck();
+        dealer.placeCardsOnTable();
+        restoredDealer.placeCardsOnTable();
+        assertArrayEquals(table.slotToCard, restoredTable.slotToCard);
+    }
+
+    @Test
+    void snapshot_doesNotChangeTheShuffles() {
+        Table otherTable = new Table(newEnv());
+        Dealer other = newGame(otherTable, new Player[config.players], 42);
+        dealer.shuffleDeck();
+        other.shuffleDeck();
+
+        dealer.snapshot();
+        dealer.shuffleDeck();
+        other.shuffleDeck();
+        dealer.placeCardsOnTable();
+        other.placeCardsOnTable();
+        assertArrayEquals(otherTable.slotToCard, table.slotToCard);
+    }
+
+    @Test
+    void snapshot_recordedGameStillReplays(@TempDir Path journal) throws IOException, InterruptedException {
+        // the game is reshuffled several times after the snapshot
+        Properties properties = RecordedGames.settings(4);
+        RecordedGames.record(journal, 1 << 20, properties, 1500, Dealer::snapshot);
+
+        GameReplay replay = RecordedGames.replay(journal, properties);
+        assertTrue(replay.verdicts() > 0);
+        assertEquals(Collections.emptyList(), replay.mismatches());
+    }
+
+    @Test
+    void snapshot_concurrentCallersAllServed(@TempDir Path journal) throws IOException, InterruptedException {
+        Properties properties = RecordedGames.settings(4);
+        GameSnapshot[] snapshots = new GameSnapshot[8];
+        RecordedGames.record(journal, 1 << 20, properties, 1000, dealer -> {
+            Thread[] callers = new Thread[snapshots.length];
+            for (int i = 0; i < callers.length; i++) {
+                int caller = i;
+                callers[i] = new Thread(() -> snapshots[caller] = dealer.snapshot());
+                callers[i].start();
+            }
+            for (Thread caller : callers)
+                try {
+                    caller.join(5000);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+        });
+
+        for (GameSnapshot snapshot : snapshots)
+            assertNotNull(snapshot);
+    }
+
+    @Test
+    void read_rejectsOtherData() {
+        byte[] garbage = new byte[64];
+        assertThrows(IOException.class,
+                () -> GameSnapshot.read(Channels.newChannel(new ByteArrayInputStream(garbage))));
+    }
+
+    @Test
+    void restore_rejectsOtherSettings() {
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "3");
+        properties.put("TableDelaySeconds", "0");
+        Config other = new Config(logger, properties);
+        Env env = new Env(logger, other, new HeadlessUserInterface(), new UtilImpl(other));
+        Dealer otherDealer = new Dealer(env, new Table(env), new Player[other.players]);
+
+        assertThrows(IllegalArgumentException.class, () -> otherDealer.restore(dealer.snapshot()));
+    }
+}
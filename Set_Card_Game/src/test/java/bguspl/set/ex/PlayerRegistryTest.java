@@ -0,0 +1,66 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerRegistryTest {
+
+    @Test
+    void fields_areKeptPerPlayer() {
+        PlayerRegistry registry = new PlayerRegistry(3);
+        assertEquals(1, registry.addPoint(1));
+        assertEquals(2, registry.addPoint(1));
+        registry.addPenalty(2);
+        registry.setState(2, Player.PlayerState.PENALIZED);
+        registry.setFreezeUntil(2, 1000);
+
+        assertEquals(0, registry.score(0));
+        assertEquals(2, registry.score(1));
+        assertEquals(0, registry.penalties(1));
+        assertEquals(1, registry.penalties(2));
+        assertEquals(Player.PlayerState.INIT, registry.state(1));
+        assertEquals(Player.PlayerState.PENALIZED, registry.state(2));
+        assertEquals(400, registry.freezeRemaining(2, 600));
+        assertEquals(0, registry.freezeRemaining(2, 2000));
+        assertEquals(0, registry.freezeRemaining(1, 600));
+    }
+
+    @Test
+    void fields_ofTwoPlayersAreMoreThanACacheLineApart() {
+        // 8 longs are a 64 bytes cache line, wherever the array starts
+        int first = PlayerRegistry.FIELDS_OFFSET + PlayerRegistry.SCORE;
+        int last = PlayerRegistry.FIELDS_OFFSET + PlayerRegistry.TERMINATE;
+        assertTrue(PlayerRegistry.STRIDE + first - last > 8);
+        assertTrue(first >= 0 && last < PlayerRegistry.STRIDE);
+    }
+
+    @Test
+    void actionRings_doNotShareCursors() {
+        PlayerRegistry registry = new PlayerRegistry(2);
+        ActionRing first = registry.newActionRing(0, 3);
+        ActionRing second = registry.newActionRing(1, 3);
+        first.offer(4);
+        first.offer(5);
+        second.offer(7);
+
+        assertEquals(2, first.size());
+        assertEquals(1, second.size());
+        assertEquals(4, first.poll());
+        assertEquals(7, second.poll());
+        assertEquals(-1, second.poll());
+        assertEquals(5, first.poll());
+    }
+
+    @Test
+    void terminateAll_flagsEveryPlayer() {
+        PlayerRegistry registry = new PlayerRegistry(3);
+        registry.terminate(1);
+        assertFalse(registry.isTerminated(0));
+        assertTrue(registry.isTerminated(1));
+
+        registry.terminateAll();
+        for (int player = 0; player < registry.size(); player++)
+            assertTrue(registry.isTerminated(player));
+    }
+}
@@ -45,7 +45,7 @@ class PlayerTest {
     void setUp() {
         // purposely do not find the configuration files (use defaults here).
         Env env = new Env(logger, new Config(logger, "config1.properties"), ui, util);
-        player = new Player(env, dealer, table, 0, true);
+        player = new Player(env, dealer, table, 0, true, new Scoreboard(1));
         assertInvariants();
     }
 
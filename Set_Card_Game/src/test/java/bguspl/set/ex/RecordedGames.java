@@ -0,0 +1,94 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.GameJournal;
+import bguspl.set.HeadlessUserInterface;
+import bguspl.set.UtilImpl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records games of computer players into a journal and replays them, for the tests of the claim modes, the journal and
+ * the replay.
+ */
+final class RecordedGames {
+
+    private static final Logger LOGGER = Logger.getLogger("RecordedGames");
+
+    static {
+        LOGGER.setLevel(Level.OFF);
+    }
+
+    private RecordedGames() {
+    }
+
+    /**
+     * @param computers - the number of computer players.
+     * @return - the settings of a fast game of computer players (no delays, a short turn timeout for reshuffles).
+     */
+    static Properties settings(int computers) {
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "0");
+        properties.put("ComputerPlayers", Integer.toString(computers));
+        properties.put("ComputerDelaySeconds", "0.001");
+        properties.put("TableDelaySeconds", "0.001");
+        properties.put("PointFreezeSeconds", "0");
+        properties.put("PenaltyFreezeSeconds", "0");
+        properties.put("TurnTimeoutSeconds", "0.3");
+        properties.put("TurnTimeoutWarningSeconds", "0");
+        return properties;
+    }
+
+    /**
+     * Plays a game and records it.
+     *
+     * @param directory   - the journal directory.
+     * @param segmentSize - the size in bytes of the journal segments.
+     * @param properties  - the game settings.
+     * @param millis      - how long the game is played (it is terminated then, if it is not over).
+     * @param during      - called with the dealer in the middle of the game (on the calling thread).
+     */
+    static void record(Path directory, int segmentSize, Properties properties, long millis, Consumer<Dealer> during)
+            throws IOException, InterruptedException {
+        Config config = new Config(LOGGER, properties);
+        try (GameJournal journal = GameJournal.open(directory, segmentSize)) {
+            Env env = new Env(LOGGER, config, new HeadlessUserInterface(), new UtilImpl(config), journal);
+            Table table = new Table(env);
+            Player[] players = new Player[config.players];
+            Dealer dealer = new Dealer(env, table, players, 5);
+            for (int i = 0; i < players.length; i++)
+                players[i] = new Player(env, dealer, table, i, false);
+            Thread dealerThread = new Thread(dealer, "dealer");
+            dealerThread.start();
+            Thread.sleep(millis / 2);
+            during.accept(dealer);
+            Thread.sleep(millis - millis / 2);
+            dealer.terminate();
+            dealerThread.join();
+        }
+    }
+
+    /**
+     * Replays a recorded game the way GameReplay.main does (the claims of a validator game are checked one by one).
+     *
+     * @param directory  - the journal directory.
+     * @param properties - the settings of the recorded game.
+     * @return - the replay.
+     */
+    static GameReplay replay(Path directory, Properties properties) throws IOException {
+        Properties replayed = new Properties();
+        replayed.putAll(properties);
+        replayed.put("TableDelaySeconds", "0");
+        replayed.put("ClaimValidators", "0");
+        Config config = new Config(LOGGER, replayed);
+        GameReplay replay = new GameReplay(new Env(LOGGER, config, new HeadlessUserInterface(), new UtilImpl(config)));
+        GameJournal.read(directory, replay);
+        return replay;
+    }
+}
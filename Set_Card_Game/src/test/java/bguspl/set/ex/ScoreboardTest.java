@@ -0,0 +1,71 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreboardTest {
+
+    @Test
+    void leaders_allPlayersBeforeAnyPoint() {
+        Scoreboard scoreboard = new Scoreboard(3);
+        assertArrayEquals(new int[]{0, 1, 2}, scoreboard.leaders());
+        assertEquals(0, scoreboard.maxScore());
+    }
+
+    @Test
+    void point_keepsPlayersOrderedByScore() {
+        Scoreboard scoreboard = new Scoreboard(4);
+        assertEquals(1, scoreboard.point(2));
+        assertEquals(1, scoreboard.point(3));
+        assertEquals(2, scoreboard.point(3));
+
+        assertArrayEquals(new int[]{3}, scoreboard.leaders());
+        assertArrayEquals(new int[]{3, 2}, scoreboard.top(2));
+        assertEquals(2, scoreboard.maxScore());
+        assertEquals(1, scoreboard.score(2));
+
+        scoreboard.point(2);
+        assertArrayEquals(new int[]{2, 3}, scoreboard.leaders());
+    }
+
+    @Test
+    void scores_areKeptInTheRegistry() {
+        PlayerRegistry registry = new PlayerRegistry(3);
+        Scoreboard scoreboard = new Scoreboard(registry);
+        scoreboard.point(1);
+        scoreboard.reset(new int[]{4, scoreboard.score(1), 2});
+        scoreboard.point(1);
+
+        assertEquals(4, registry.score(0));
+        assertEquals(2, registry.score(1));
+        assertEquals(2, registry.score(2));
+        assertArrayEquals(new int[]{0}, scoreboard.leaders());
+    }
+
+    @Test
+    void point_matchesScanOfScores() {
+        Random random = new Random(7);
+        int[] scores = new int[9];
+        Scoreboard scoreboard = new Scoreboard(scores.length);
+        scores[4] = 5;
+        scoreboard.reset(scores);
+        for (int i = 0; i < 200; i++) {
+            int player = random.nextInt(scores.length);
+            scores[player]++;
+            scoreboard.point(player);
+
+            int max = 0;
+            for (int score : scores)
+                max = Math.max(max, score);
+            int[] top = scoreboard.top(scores.length);
+            for (int k = 1; k < top.length; k++)
+                assertTrue(scores[top[k - 1]] >= scores[top[k]]);
+            for (int leader : scoreboard.leaders())
+                assertEquals(max, scores[leader]);
+            assertEquals(max, scoreboard.maxScore());
+        }
+    }
+}
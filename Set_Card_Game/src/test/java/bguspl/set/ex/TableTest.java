@@ -4,19 +4,28 @@ import bguspl.set.Config;
 import bguspl.set.Env;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
+import bguspl.set.UtilImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TableTest {
 
     Table table;
+    private Config config;
+    private MockLogger logger;
     private Integer[] slotToCard;
     private Integer[] cardToSlot;
 
@@ -33,8 +42,8 @@ class TableTest {
         properties.put("PlayerKeys1", "81,87,69,82");
         properties.put("HumanPlayers", "2");
 
-        MockLogger logger = new MockLogger();
-        Config config = new Config(logger, properties);
+        logger = new MockLogger();
+        config = new Config(logger, properties);
         slotToCard = new Integer[config.tableSize];
         cardToSlot = new Integer[config.deckSize];
 
@@ -98,6 +107,112 @@ class TableTest {
         placeSomeCardsAndAssert();
     }
 
+    @Test
+    void layoutVersion_changesWithCards() {
+        long version = table.layoutVersion();
+        table.placeCard(8, 2);
+        assertEquals(version + 1, table.layoutVersion());
+        table.removeCard(2);
+        assertEquals(version + 2, table.layoutVersion());
+
+        fillAllSlots();
+        table.keyPressed(0, 1);
+        assertEquals(version + 2, table.layoutVersion());
+    }
+
+    @Test
+    void hintLines_cachedPerLayoutVersion() {
+        Table table = new Table(new Env(logger, config, new MockUserInterface(), new UtilImpl(config)));
+        // cards 0, 1 and 2 differ in one feature only, so they are a set
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(2, 3);
+
+        List<String> lines = table.hintLines();
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("Hint: Set found: slots: [0, 1, 3]"));
+        assertSame(lines, table.hintLines());
+
+        // a token does not change the layout, a card does
+        table.placeToken(0, 1);
+        assertSame(lines, table.hintLines());
+        table.removeCard(1);
+        assertEquals(0, table.hintLines().size());
+        table.placeCard(1, 2);
+        List<String> moved = table.hintLines();
+        assertNotSame(lines, moved);
+        assertTrue(moved.get(0).startsWith("Hint: Set found: slots: [0, 2, 3]"));
+    }
+
+    @Test
+    void hints_allTablesShareOnePrinterThread() {
+        for (int i = 0; i < 3; i++)
+            new Table(new Env(logger, config, new MockUserInterface(), new UtilImpl(config))).hints();
+
+        long printers = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("hints")).count();
+        assertEquals(1, printers);
+    }
+
+    @Test
+    void subscribe_receivesChangesInVersionOrder() {
+        List<String> events = new ArrayList<>();
+        BoardSnapshot before = table.subscribe(new TableListener() {
+            @Override
+            public void cardPlaced(long version, int card, int slot) {
+                events.add(version + " placed " + card + " " + slot);
+            }
+
+            @Override
+            public void cardRemoved(long version, int card, int slot) {
+                events.add(version + " removed " + card + " " + slot);
+            }
+
+            @Override
+            public void tokenChanged(long version, int player, int slot, boolean placed) {
+                events.add(version + " token " + player + " " + slot + " " + placed);
+            }
+        });
+        long version = before.version;
+
+        table.placeCard(8, 2);
+        table.keyPressed(1, 2);
+        BoardSnapshot board = table.snapshot();
+        table.removeCard(2);
+
+        assertEquals(Arrays.asList(
+                (version + 1) + " placed 8 2",
+                (version + 2) + " token 1 2 true",
+                (version + 3) + " token 1 2 false",
+                (version + 4) + " removed 8 2"), events);
+        assertEquals(version + 2, board.version);
+        assertEquals(8, board.card(2));
+        assertTrue(board.hasToken(1, 2));
+        assertEquals(-1, before.card(2));
+        assertEquals(-1, table.snapshot().card(2));
+        assertEquals(0, table.snapshot().tokenCount(1));
+    }
+
+    @Test
+    void placeCards_onlyEmptySlots() {
+        fillSomeSlots();
+        assertEquals(2, table.placeCards(new int[]{7, 8, 9}, new int[]{0, 1, 3}));
+        assertEquals(7, (int) slotToCard[0]);
+        assertEquals(3, (int) slotToCard[1]);
+        assertEquals(9, (int) slotToCard[3]);
+        assertEquals(3, (int) cardToSlot[9]);
+    }
+
+    @Test
+    void removeAllCards_returnsCardsInSlotOrder() {
+        table.placeCards(new int[]{7, 8, 9}, new int[]{3, 0, 2});
+        table.keyPressed(0, 2);
+        assertArrayEquals(new int[]{8, 9, 7}, table.removeAllCards());
+        assertEquals(0, table.countCards());
+        assertTrue(table.getPlayerCards(0).isEmpty());
+        assertNull(cardToSlot[9]);
+    }
+
     // place token related tests:
     @Test
     void placeToken_emptySlot() {
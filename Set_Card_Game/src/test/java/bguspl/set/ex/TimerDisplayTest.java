@@ -0,0 +1,81 @@
+package bguspl.set.ex;
+
+import bguspl.set.UserInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimerDisplayTest {
+
+    @Mock
+    private UserInterface ui;
+
+    private TimerDisplay display;
+
+    @BeforeEach
+    void setUp() {
+        display = new TimerDisplay(ui, 5000);
+    }
+
+    @Test
+    void show_pushesCountdownOncePerSecond() {
+        display.countdown(60_000);
+
+        assertEquals(1, display.show(0));
+        assertEquals(501, display.show(500));
+        assertEquals(1000, display.show(1001));
+        verify(ui).setCountdown(60_000, false);
+        verify(ui).setCountdown(59_500, false);
+        verify(ui).setCountdown(58_999, false);
+        verify(ui, times(3)).setCountdown(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void show_pushesHundredthsInTheWarningWindow() {
+        display.countdown(60_000);
+
+        // the next wake up is the start of the warning window
+        assertEquals(1, display.show(55_000));
+        assertEquals(10, display.show(55_001));
+        assertEquals(5, display.show(55_006));
+        assertEquals(-1, display.show(61_000));
+        verify(ui).setCountdown(5000, false);
+        verify(ui).setCountdown(4999, true);
+        verify(ui).setCountdown(0, true);
+        verify(ui, times(3)).setCountdown(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void show_pushesElapsedTime() {
+        display.elapsed(1000);
+
+        assertEquals(1000, display.show(1000));
+        assertEquals(1, display.show(1999));
+        assertEquals(1000, display.show(2000));
+        verify(ui).setElapsed(0);
+        verify(ui).setElapsed(1000);
+        verifyNoMoreInteractions(ui);
+    }
+
+    @Test
+    void show_nothingBeforeATimeIsPublished() {
+        assertEquals(-1, display.show(0));
+        verifyNoInteractions(ui);
+    }
+
+    @Test
+    void thread_showsTheLastPublishedTime() {
+        display.start();
+        display.countdown(System.currentTimeMillis() - 1);
+        display.stop();
+        verify(ui, atLeastOnce()).setCountdown(0, true);
+    }
+}